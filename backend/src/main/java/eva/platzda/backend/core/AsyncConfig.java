@@ -1,10 +1,13 @@
 package eva.platzda.backend.core;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
+import java.util.concurrent.ThreadPoolExecutor;
+
 
 @Configuration
 @EnableAsync
@@ -20,4 +23,17 @@ public class AsyncConfig {
         ex.initialize();
         return ex;
     }
+
+    //bounded pool for timeslot publishing; a full queue makes the submitting thread generate itself
+    @Bean(name = "timeslotExecutor")
+    public ThreadPoolTaskExecutor timeslotExecutor(@Value("${platzda.timeslots.publish-threads:4}") int threads) {
+        var ex = new ThreadPoolTaskExecutor();
+        ex.setCorePoolSize(threads);
+        ex.setMaxPoolSize(threads);
+        ex.setQueueCapacity(1000);
+        ex.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        ex.setThreadNamePrefix("slots-");
+        ex.initialize();
+        return ex;
+    }
 }
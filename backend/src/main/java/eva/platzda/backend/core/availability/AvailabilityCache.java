@@ -0,0 +1,180 @@
+package eva.platzda.backend.core.availability;
+
+import eva.platzda.backend.core.dtos.TimeWindow;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Bounded cache of free-slot results keyed by (restaurant, day, opening, closing, guests).
+ *
+ * The opening hours are part of the key, so a result computed for hours that were edited
+ * afterwards is never served, even for days whose timeslots the edit did not touch.
+ * Entries are evicted least-recently-used once the cache is full and expire after a fixed age.
+ * The {@link OccupancyIndex} invalidates all entries of a restaurant day whenever that day changes.
+ */
+@Component
+public class AvailabilityCache {
+
+    private record Key(Long restaurantId, LocalDate day, LocalTime open, LocalTime close, int guests) {
+    }
+
+    private record Entry(List<TimeWindow> windows, long createdAt) {
+    }
+
+    private final int maxEntries;
+    private final long ttlNanos;
+
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<DayKey, Set<Key>> keysByDay = new HashMap<>();
+
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public AvailabilityCache(@Value("${platzda.availability-cache.max-entries:10000}") int maxEntries,
+                             @Value("${platzda.availability-cache.ttl-seconds:60}") long ttlSeconds) {
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttlSeconds * 1_000_000_000L;
+    }
+
+    /**
+     * Returns the cached windows for a key or computes and caches them.
+     *
+     * A result computed while the cache was invalidated is returned but not stored.
+     *
+     * @param restaurantId ID of the restaurant
+     * @param day Date of interest
+     * @param open Opening time the windows are computed for
+     * @param close Closing time the windows are computed for
+     * @param guests Number of guests
+     * @param loader Computes the windows on a miss
+     * @return Free windows
+     */
+    public List<TimeWindow> get(Long restaurantId, LocalDate day, LocalTime open, LocalTime close, int guests,
+                                Supplier<List<TimeWindow>> loader) {
+        Key key = new Key(restaurantId, day, open, close, guests);
+        long now = System.nanoTime();
+
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null && now - entry.createdAt() < ttlNanos) {
+                hits.incrementAndGet();
+                return entry.windows();
+            }
+            if (entry != null) {
+                remove(key);
+                evictions.incrementAndGet();
+            }
+        }
+
+        misses.incrementAndGet();
+        long seen = generation.get();
+        List<TimeWindow> windows = List.copyOf(loader.get());
+
+        synchronized (this) {
+            if (generation.get() == seen) {
+                entries.put(key, new Entry(windows, now));
+                keysByDay.computeIfAbsent(new DayKey(restaurantId, day), k -> new HashSet<>()).add(key);
+                evictOverflow();
+            }
+        }
+        return windows;
+    }
+
+    /**
+     * Drops all entries of one restaurant day.
+     *
+     * @param restaurantId ID of the restaurant
+     * @param day Date that changed
+     */
+    public synchronized void invalidate(Long restaurantId, LocalDate day) {
+        generation.incrementAndGet();
+        Set<Key> keys = keysByDay.remove(new DayKey(restaurantId, day));
+        if (keys == null) return;
+        for (Key key : keys) {
+            if (entries.remove(key) != null) invalidations.incrementAndGet();
+        }
+    }
+
+    /**
+     * Drops all entries of a restaurant.
+     *
+     * @param restaurantId ID of the restaurant
+     */
+    public synchronized void invalidate(Long restaurantId) {
+        generation.incrementAndGet();
+        List<DayKey> affected = keysByDay.keySet().stream().filter(k -> k.restaurantId().equals(restaurantId)).toList();
+        for (DayKey k : affected) {
+            invalidate(k.restaurantId(), k.day());
+        }
+    }
+
+    /**
+     * Drops every entry.
+     */
+    public synchronized void invalidateAll() {
+        generation.incrementAndGet();
+        invalidations.addAndGet(entries.size());
+        entries.clear();
+        keysByDay.clear();
+    }
+
+    /**
+     * Returns the cache statistics.
+     *
+     * @return Size, hits, misses, evictions and invalidations as String
+     */
+    public String getStats() {
+        int size;
+        synchronized (this) {
+            size = entries.size();
+        }
+        long h = hits.get();
+        long m = misses.get();
+        long ratio = (h + m) == 0 ? 0 : (h * 100) / (h + m);
+
+        return "Entries: " + size + "/" + maxEntries + "\n"
+                + "Hits: " + h + "\n"
+                + "Misses: " + m + "\n"
+                + "Hit ratio: " + ratio + "%\n"
+                + "Evictions: " + evictions.get() + "\n"
+                + "Invalidations: " + invalidations.get();
+    }
+
+    private void evictOverflow() {
+        Iterator<Key> it = entries.keySet().iterator();
+        while (entries.size() > maxEntries && it.hasNext()) {
+            Key eldest = it.next();
+            it.remove();
+            forgetKey(eldest);
+            evictions.incrementAndGet();
+        }
+    }
+
+    private void remove(Key key) {
+        entries.remove(key);
+        forgetKey(key);
+    }
+
+    private void forgetKey(Key key) {
+        DayKey dayKey = new DayKey(key.restaurantId(), key.day());
+        Set<Key> keys = keysByDay.get(dayKey);
+        if (keys == null) return;
+        keys.remove(key);
+        if (keys.isEmpty()) keysByDay.remove(dayKey);
+    }
+}
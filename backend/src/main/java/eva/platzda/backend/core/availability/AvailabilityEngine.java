@@ -0,0 +1,133 @@
+package eva.platzda.backend.core.availability;
+
+import eva.platzda.backend.core.dtos.TimeWindow;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Computes restaurant-wide free time windows in a single pass.
+ *
+ * The day is fetched once from the {@link OccupancyIndex} and answered from its
+ * {@link CapacityProfile}, so the work per request does not depend on the number
+ * of tables or on the requested party size.
+ */
+@Component
+public class AvailabilityEngine {
+
+    private final OccupancyIndex occupancyIndex;
+
+    @Autowired
+    public AvailabilityEngine(OccupancyIndex occupancyIndex) {
+        this.occupancyIndex = occupancyIndex;
+    }
+
+    /**
+     * Finds all windows of a restaurant on a day that can seat the given number of guests.
+     *
+     * @param restaurantId ID of the restaurant
+     * @param day Date of interest
+     * @param open Earliest start of a window
+     * @param close Latest end of a window
+     * @param length Window length in quarter-hours
+     * @param guests Number of guests
+     * @return Windows sorted by start time, with the summed capacity of all free tables
+     */
+    public List<TimeWindow> findFreeWindows(Long restaurantId,
+                                            LocalDate day,
+                                            LocalTime open,
+                                            LocalTime close,
+                                            int length,
+                                            int guests) {
+        return findFreeWindows(occupancyIndex.get(restaurantId, day), open, close, length, guests);
+    }
+
+    /**
+     * Finds all windows of an already loaded day that can seat the given number of guests.
+     *
+     * @param occupancy Occupancy of the day
+     * @param open Earliest start of a window
+     * @param close Latest end of a window
+     * @param length Window length in quarter-hours
+     * @param guests Number of guests
+     * @return Windows sorted by start time, with the summed capacity of all free tables
+     */
+    public List<TimeWindow> findFreeWindows(DayOccupancy occupancy,
+                                            LocalTime open,
+                                            LocalTime close,
+                                            int length,
+                                            int guests) {
+        if (length <= 0) return List.of();
+
+        CapacityProfile profile = occupancy.profile(length);
+
+        int first = DayOccupancy.ceilSlot(open);
+        int last = DayOccupancy.floorSlot(close) - length;
+
+        LocalDateTime midnight = occupancy.getDay().atStartOfDay();
+        List<TimeWindow> windows = new ArrayList<>();
+        for (int slot = Math.max(first, 0); slot <= last; slot++) {
+            int seats = profile.freeSeats()[slot];
+            if (seats > 0 && profile.maxParty(slot) >= guests) {
+                LocalDateTime start = midnight.plusMinutes((long) slot * DayOccupancy.SLOT_MINUTES);
+                windows.add(new TimeWindow(start, start.plusMinutes((long) length * DayOccupancy.SLOT_MINUTES), seats));
+            }
+        }
+        return windows;
+    }
+
+    /**
+     * Finds the windows closest to a point in time that can seat the given number of guests.
+     *
+     * Only starts that lie within one of the opening intervals, including the whole window, are considered.
+     *
+     * @param occupancy Occupancy of the day
+     * @param hours Opening intervals of the day
+     * @param length Window length in quarter-hours
+     * @param guests Number of guests
+     * @param around Point in time to search from (excluded)
+     * @param k Maximum number of windows
+     * @param earlier true to search before around, false to search after it
+     * @return Up to k windows, sorted by start time
+     */
+    public List<TimeWindow> findNearestWindows(DayOccupancy occupancy,
+                                               List<OpeningInterval> hours,
+                                               int length,
+                                               int guests,
+                                               LocalDateTime around,
+                                               int k,
+                                               boolean earlier) {
+        if (length <= 0 || k <= 0 || !around.toLocalDate().equals(occupancy.getDay())) return List.of();
+
+        boolean[] allowed = new boolean[DayOccupancy.SLOTS_PER_DAY];
+        for (OpeningInterval interval : hours) {
+            if (interval.open() == null || interval.close() == null) continue;
+            int last = DayOccupancy.floorSlot(interval.close()) - length;
+            for (int slot = DayOccupancy.ceilSlot(interval.open()); slot <= last; slot++) {
+                allowed[slot] = true;
+            }
+        }
+
+        CapacityProfile profile = occupancy.profile(length);
+        int step = earlier ? -1 : 1;
+        int slot = earlier ? DayOccupancy.ceilSlot(around.toLocalTime()) - 1 : DayOccupancy.floorSlot(around.toLocalTime()) + 1;
+
+        LocalDateTime midnight = occupancy.getDay().atStartOfDay();
+        List<TimeWindow> windows = new ArrayList<>();
+        for (; slot >= 0 && slot < DayOccupancy.SLOTS_PER_DAY && windows.size() < k; slot += step) {
+            int seats = profile.freeSeats()[slot];
+            if (!allowed[slot] || seats == 0 || profile.maxParty(slot) < guests) continue;
+
+            LocalDateTime start = midnight.plusMinutes((long) slot * DayOccupancy.SLOT_MINUTES);
+            windows.add(new TimeWindow(start, start.plusMinutes((long) length * DayOccupancy.SLOT_MINUTES), seats));
+        }
+        if (earlier) Collections.reverse(windows);
+        return windows;
+    }
+}
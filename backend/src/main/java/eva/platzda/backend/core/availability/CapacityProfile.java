@@ -0,0 +1,27 @@
+package eva.platzda.backend.core.availability;
+
+/**
+ * Capacity of a restaurant day per window start, for one reservation length.
+ *
+ * Index i describes the window that starts at quarter-hour i of the day. Both table
+ * allocators may combine any number of free tables: the greedy one keeps adding tables
+ * until the party is seated, and the best-fit one searches sums up to the party plus the
+ * largest table, which always contains some combination once the free seats suffice. So
+ * every party up to {@code freeSeats[i]} guests can really be seated at i.
+ *
+ * @param length Window length in quarter-hours
+ * @param freeSeats Seats of all tables that are free for the whole window
+ */
+public record CapacityProfile(int length, int[] freeSeats) {
+
+    /**
+     * Returns the largest party that can be seated in the window starting at a slot.
+     *
+     * @param slot Slot index of the window start
+     * @return Number of guests, 0 if the slot is out of range
+     */
+    public int maxParty(int slot) {
+        if (slot < 0 || slot >= freeSeats.length) return 0;
+        return freeSeats[slot];
+    }
+}
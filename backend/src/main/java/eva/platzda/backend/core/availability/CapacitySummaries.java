@@ -0,0 +1,106 @@
+package eva.platzda.backend.core.availability;
+
+import eva.platzda.backend.core.repositories.HoursRepository;
+import eva.platzda.backend.core.repositories.RestaurantRepository;
+import eva.platzda.backend.core.repositories.TableRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps a {@link CapacitySummary} of every restaurant in memory.
+ *
+ * The snapshot is built with three aggregate queries, independent of the number of
+ * restaurants, and is dropped whenever restaurants, tables or opening hours change.
+ */
+@Component
+public class CapacitySummaries {
+
+    private final RestaurantRepository restaurantRepository;
+    private final TableRepository tableRepository;
+    private final HoursRepository hoursRepository;
+
+    private volatile Map<Long, CapacitySummary> snapshot;
+    private final AtomicLong generation = new AtomicLong();
+
+    @Autowired
+    public CapacitySummaries(RestaurantRepository restaurantRepository,
+                             TableRepository tableRepository,
+                             HoursRepository hoursRepository) {
+        this.restaurantRepository = restaurantRepository;
+        this.tableRepository = tableRepository;
+        this.hoursRepository = hoursRepository;
+    }
+
+    /**
+     * Returns the summaries of all restaurants, building them if necessary.
+     *
+     * @return Summaries of all restaurants
+     */
+    public Collection<CapacitySummary> all() {
+        return snapshot().values();
+    }
+
+    /**
+     * Returns the summary of a single restaurant, building the snapshot if necessary.
+     *
+     * @param restaurantId ID of the restaurant
+     * @return Summary of the restaurant, null if it does not exist
+     */
+    public CapacitySummary get(Long restaurantId) {
+        return snapshot().get(restaurantId);
+    }
+
+    /**
+     * Drops the snapshot once the current transaction commits; the next access rebuilds it.
+     */
+    public void invalidate() {
+        TransactionHooks.afterCommit(() -> {
+            generation.incrementAndGet();
+            snapshot = null;
+        });
+    }
+
+    private Map<Long, CapacitySummary> snapshot() {
+        Map<Long, CapacitySummary> current = snapshot;
+        if (current == null) {
+            long seen = generation.get();
+            current = load();
+            if (generation.get() == seen) snapshot = current;
+        }
+        return current;
+    }
+
+    private Map<Long, CapacitySummary> load() {
+        Map<Long, Set<String>> tags = new HashMap<>();
+        for (RestaurantTag t : restaurantRepository.findAllTags()) {
+            tags.computeIfAbsent(t.restaurantId(), id -> new HashSet<>()).add(t.tag());
+        }
+
+        Map<Long, Map<Integer, List<OpeningInterval>>> hours = hoursRepository.findAllOpeningIntervals().stream()
+                .collect(Collectors.groupingBy(OpeningInterval::restaurantId, Collectors.groupingBy(OpeningInterval::weekday)));
+
+        Map<Long, CapacitySummary> result = new HashMap<>();
+        for (RestaurantCapacity c : tableRepository.findRestaurantCapacities()) {
+            result.put(c.restaurantId(), new CapacitySummary(
+                    c.restaurantId(),
+                    c.address(),
+                    c.timeSlotDuration() == null ? 0 : c.timeSlotDuration(),
+                    c.totalSeats() == null ? 0 : c.totalSeats().intValue(),
+                    c.largestTable() == null ? 0 : c.largestTable(),
+                    tags.getOrDefault(c.restaurantId(), Set.of()),
+                    hours.getOrDefault(c.restaurantId(), Map.of()),
+                    c.bookingConcurrency(),
+                    c.maxBookingsPerUserDay()));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,64 @@
+package eva.platzda.backend.core.availability;
+
+import eva.platzda.backend.core.models.BookingConcurrency;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Static capacity facts of a restaurant, used to rule out restaurants before their occupancy is read.
+ *
+ * @param restaurantId ID of the restaurant
+ * @param address Address of the restaurant
+ * @param timeSlotDuration Reservation length in quarter-hours
+ * @param totalSeats Sum of all table sizes
+ * @param largestTable Size of the largest table
+ * @param tags Tags of the restaurant
+ * @param hoursByWeekday Opening intervals per weekday (1 = Monday, 7 = Sunday)
+ * @param bookingConcurrency Configured booking concurrency, null for the default
+ * @param maxBookingsPerUserDay Configured bookings per user and day, null for the default
+ */
+public record CapacitySummary(Long restaurantId,
+                              String address,
+                              int timeSlotDuration,
+                              int totalSeats,
+                              int largestTable,
+                              Set<String> tags,
+                              Map<Integer, List<OpeningInterval>> hoursByWeekday,
+                              BookingConcurrency bookingConcurrency,
+                              Integer maxBookingsPerUserDay) {
+
+    /**
+     * Checks whether the restaurant could seat a party at all, ignoring existing bookings.
+     *
+     * @param guests Number of guests
+     * @param start Start of the reservation
+     * @return false if the restaurant is too small or closed for the whole reservation
+     */
+    public boolean canPossiblySeat(int guests, LocalDateTime start) {
+        if (totalSeats < guests || timeSlotDuration <= 0) return false;
+
+        LocalTime from = start.toLocalTime();
+        LocalDateTime end = start.plusMinutes((long) timeSlotDuration * DayOccupancy.SLOT_MINUTES);
+        if (!end.toLocalDate().equals(start.toLocalDate())) return false;
+
+        for (OpeningInterval interval : hoursByWeekday.getOrDefault(start.getDayOfWeek().getValue(), List.of())) {
+            if (interval.open() == null || interval.close() == null) continue;
+            if (!from.isBefore(interval.open()) && !end.toLocalTime().isAfter(interval.close())) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether the restaurant carries all given tags.
+     *
+     * @param required Required tags, empty for no restriction
+     * @return true if every required tag is present
+     */
+    public boolean hasTags(List<String> required) {
+        return tags.containsAll(required);
+    }
+}
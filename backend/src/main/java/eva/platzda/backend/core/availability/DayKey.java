@@ -0,0 +1,12 @@
+package eva.platzda.backend.core.availability;
+
+import java.time.LocalDate;
+
+/**
+ * Identifies the occupancy of one restaurant on one day.
+ *
+ * @param restaurantId ID of the restaurant
+ * @param day Date of interest
+ */
+public record DayKey(Long restaurantId, LocalDate day) {
+}
@@ -0,0 +1,244 @@
+package eva.platzda.backend.core.availability;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Occupancy of all tables of one restaurant on one day.
+ *
+ * Every table owns a bitset with one bit per quarter-hour of the day (bit 0 = 00:00).
+ * A set bit means that a timeslot exists for this quarter-hour and nobody booked it.
+ * On top of the bitsets a {@link CapacityProfile} for the restaurant's reservation length
+ * is kept and updated incrementally whenever slots are booked or released.
+ */
+public class DayOccupancy {
+
+    public static final int SLOT_MINUTES = 15;
+    public static final int SLOTS_PER_DAY = 24 * 60 / SLOT_MINUTES;
+    static final int WORDS = (SLOTS_PER_DAY + 63) / 64;
+
+    private final LocalDate day;
+    private final long[] tableIds;
+    private final int[] tableSizes;
+    private final long[][] freeBits;
+    private final Map<Long, Integer> indexByTableId = new HashMap<>();
+
+    private int profileLength = -1;
+    private int[] freeSeats;
+
+    /**
+     * Creates an empty occupancy (no free slots) for the given tables.
+     *
+     * @param day Date of the occupancy
+     * @param tables All tables of the restaurant
+     */
+    public DayOccupancy(LocalDate day, List<TableState> tables) {
+        this.day = day;
+
+        List<TableState> sorted = new ArrayList<>(tables);
+        sorted.sort(Comparator.comparing(TableState::tableId));
+
+        this.tableIds = new long[sorted.size()];
+        this.tableSizes = new int[sorted.size()];
+        this.freeBits = new long[sorted.size()][WORDS];
+
+        for (int i = 0; i < sorted.size(); i++) {
+            tableIds[i] = sorted.get(i).tableId();
+            tableSizes[i] = sorted.get(i).size() == null ? 0 : sorted.get(i).size();
+            indexByTableId.put(tableIds[i], i);
+        }
+    }
+
+    public LocalDate getDay() {
+        return day;
+    }
+
+    public int getTableCount() {
+        return tableIds.length;
+    }
+
+    public long getTableId(int tableIdx) {
+        return tableIds[tableIdx];
+    }
+
+    public int getTableSize(int tableIdx) {
+        return tableSizes[tableIdx];
+    }
+
+    /**
+     * Returns the position of a table inside this occupancy.
+     *
+     * @param tableId ID of the table
+     * @return index of the table or -1 if the table is unknown
+     */
+    public int indexOf(Long tableId) {
+        Integer idx = indexByTableId.get(tableId);
+        return idx == null ? -1 : idx;
+    }
+
+    /**
+     * Converts a time of day to its quarter-hour slot index.
+     *
+     * @param time Time of day
+     * @return slot index or -1 if the time is not aligned to a quarter-hour
+     */
+    public static int slotIndex(LocalTime time) {
+        int minute = time.getHour() * 60 + time.getMinute();
+        if (minute % SLOT_MINUTES != 0 || time.getSecond() != 0 || time.getNano() != 0) return -1;
+        return minute / SLOT_MINUTES;
+    }
+
+    /**
+     * Marks the quarter-hours between start (inclusive) and end (exclusive) of a table as free or booked.
+     *
+     * Times outside of this day and unknown tables are ignored.
+     *
+     * @param tableId ID of the table
+     * @param start Start of the interval
+     * @param end End of the interval
+     * @param free true to mark the interval free, false to mark it booked
+     */
+    public synchronized void setFree(Long tableId, LocalDateTime start, LocalDateTime end, boolean free) {
+        int idx = indexOf(tableId);
+        if (idx < 0) return;
+
+        int firstChanged = SLOTS_PER_DAY;
+        int lastChanged = -1;
+
+        for (LocalDateTime cursor = start; cursor.isBefore(end); cursor = cursor.plusMinutes(SLOT_MINUTES)) {
+            if (!cursor.toLocalDate().equals(day)) continue;
+            int slot = slotIndex(cursor.toLocalTime());
+            if (slot < 0) continue;
+
+            long mask = 1L << (slot & 63);
+            if (free) {
+                freeBits[idx][slot >>> 6] |= mask;
+            } else {
+                freeBits[idx][slot >>> 6] &= ~mask;
+            }
+            firstChanged = Math.min(firstChanged, slot);
+            lastChanged = Math.max(lastChanged, slot);
+        }
+
+        if (profileLength > 0 && lastChanged >= 0) {
+            //only windows overlapping the changed slots are affected
+            for (int s = Math.max(0, firstChanged - profileLength + 1); s <= lastChanged; s++) {
+                refreshProfile(s);
+            }
+        }
+    }
+
+    /**
+     * Returns the capacity profile for a reservation length.
+     *
+     * The profile is built on first use with word-level window tests and afterwards
+     * maintained by {@link #setFree}; asking for another length rebuilds it.
+     *
+     * @param length Window length in quarter-hours
+     * @return Snapshot of the profile
+     */
+    public synchronized CapacityProfile profile(int length) {
+        if (length != profileLength) {
+            freeSeats = new int[SLOTS_PER_DAY];
+            if (length > 0) {
+                for (int t = 0; t < tableIds.length; t++) {
+                    long[] starts = windowStarts(t, length);
+                    for (int w = 0; w < starts.length; w++) {
+                        long word = starts[w];
+                        while (word != 0) {
+                            int slot = (w << 6) + Long.numberOfTrailingZeros(word);
+                            freeSeats[slot] += tableSizes[t];
+                            word &= word - 1;
+                        }
+                    }
+                }
+            }
+            profileLength = length;
+        }
+        return new CapacityProfile(length, freeSeats.clone());
+    }
+
+    private void refreshProfile(int slot) {
+        int seats = 0;
+        for (int t = 0; t < tableIds.length; t++) {
+            if (isFree(t, slot, profileLength)) {
+                seats += tableSizes[t];
+            }
+        }
+        freeSeats[slot] = seats;
+    }
+
+    /**
+     * Computes all slot indices at which a window of the given length is completely free for a table.
+     *
+     * The window test runs on whole words: after each doubling step bit i tells
+     * whether the next 2^n quarter-hours are free, so only O(log length) shifts are needed.
+     *
+     * @param tableIdx Index of the table
+     * @param length Window length in quarter-hours
+     * @return bitset of window starts
+     */
+    public synchronized long[] windowStarts(int tableIdx, int length) {
+        long[] result = freeBits[tableIdx].clone();
+        if (length <= 1) return result;
+
+        int covered = 1;
+        while (covered * 2 <= length) {
+            and(result, shiftRight(result, covered));
+            covered *= 2;
+        }
+        if (covered < length) {
+            and(result, shiftRight(result, length - covered));
+        }
+        return result;
+    }
+
+    /**
+     * Checks whether a table is free for length quarter-hours starting at a slot.
+     *
+     * @param tableIdx Index of the table
+     * @param slot First slot of the window
+     * @param length Window length in quarter-hours
+     * @return true if every slot of the window is free
+     */
+    public synchronized boolean isFree(int tableIdx, int slot, int length) {
+        if (slot < 0 || length <= 0 || slot + length > SLOTS_PER_DAY) return false;
+        for (int i = slot; i < slot + length; i++) {
+            if ((freeBits[tableIdx][i >>> 6] & (1L << (i & 63))) == 0) return false;
+        }
+        return true;
+    }
+
+    static int ceilSlot(LocalTime time) {
+        int minute = time.getHour() * 60 + time.getMinute() + (time.getSecond() > 0 || time.getNano() > 0 ? 1 : 0);
+        return (minute + SLOT_MINUTES - 1) / SLOT_MINUTES;
+    }
+
+    static int floorSlot(LocalTime time) {
+        return (time.getHour() * 60 + time.getMinute()) / SLOT_MINUTES;
+    }
+
+    private static long[] shiftRight(long[] bits, int n) {
+        long[] result = new long[bits.length];
+        int wordShift = n >>> 6;
+        int bitShift = n & 63;
+        for (int i = 0; i + wordShift < bits.length; i++) {
+            long low = bits[i + wordShift] >>> bitShift;
+            long high = (bitShift == 0 || i + wordShift + 1 >= bits.length) ? 0 : bits[i + wordShift + 1] << (64 - bitShift);
+            result[i] = low | high;
+        }
+        return result;
+    }
+
+    private static void and(long[] target, long[] other) {
+        for (int i = 0; i < target.length; i++) {
+            target[i] &= other[i];
+        }
+    }
+}
@@ -0,0 +1,299 @@
+package eva.platzda.backend.core.availability;
+
+import eva.platzda.backend.core.models.Timeslot;
+import eva.platzda.backend.core.repositories.TableRepository;
+import eva.platzda.backend.core.repositories.TimeslotRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Resident occupancy index for free-slot searches.
+ *
+ * Holds one {@link DayOccupancy} per restaurant and day. A day is loaded from the
+ * timeslot table the first time it is requested and is afterwards kept current by
+ * the services that book, free or regenerate timeslots. Every change is forwarded
+ * to the {@link AvailabilityCache} so cached results of the affected days are dropped.
+ */
+@Component
+public class OccupancyIndex {
+
+    private final TimeslotRepository timeslotRepository;
+    private final TableRepository tableRepository;
+    private final AvailabilityCache availabilityCache;
+    private final VirtualTimeslots virtualTimeslots;
+
+    private final Map<DayKey, DayOccupancy> days = new ConcurrentHashMap<>();
+    private final AtomicLong modifications = new AtomicLong();
+    private final List<BiConsumer<Long, LocalDate>> invalidationListeners = new CopyOnWriteArrayList<>();
+
+    @Autowired
+    public OccupancyIndex(TimeslotRepository timeslotRepository, TableRepository tableRepository, AvailabilityCache availabilityCache, VirtualTimeslots virtualTimeslots) {
+        this.timeslotRepository = timeslotRepository;
+        this.tableRepository = tableRepository;
+        this.availabilityCache = availabilityCache;
+        this.virtualTimeslots = virtualTimeslots;
+    }
+
+    /**
+     * Registers a listener that is called whenever days are dropped or slots are released.
+     * The listener receives the restaurant and the day, null standing for all of them.
+     *
+     * @param listener Listener to call after the change has been committed
+     */
+    public void addInvalidationListener(BiConsumer<Long, LocalDate> listener) {
+        invalidationListeners.add(listener);
+    }
+
+    /**
+     * Returns the occupancy of a restaurant on a given day, loading it if necessary.
+     *
+     * The day is loaded outside the map, so a slow query does not block other days. If the
+     * index is modified while the day is loading, the result is returned but not kept.
+     *
+     * @param restaurantId ID of the restaurant
+     * @param day Date of interest
+     * @return Occupancy of the day
+     */
+    public DayOccupancy get(Long restaurantId, LocalDate day) {
+        DayKey key = new DayKey(restaurantId, day);
+        DayOccupancy resident = days.get(key);
+        if (resident != null) return resident;
+
+        long seen = modifications.get();
+        return keep(key, load(key), seen);
+    }
+
+    /**
+     * Returns the occupancy of a restaurant on a given day only if it is already resident.
+     *
+     * @param restaurantId ID of the restaurant
+     * @param day Date of interest
+     * @return Occupancy of the day, null if it has not been loaded
+     */
+    public DayOccupancy peek(Long restaurantId, LocalDate day) {
+        return days.get(new DayKey(restaurantId, day));
+    }
+
+    /**
+     * Loads all missing days of a restaurant between from and to (inclusive) with a single query.
+     *
+     * If the index is modified while the range is loading, the result is discarded
+     * and the affected days are loaded individually on first access instead.
+     *
+     * @param restaurantId ID of the restaurant
+     * @param from First date
+     * @param to Last date
+     */
+    public void preload(Long restaurantId, LocalDate from, LocalDate to) {
+        List<LocalDate> missing = from.datesUntil(to.plusDays(1))
+                .filter(d -> !days.containsKey(new DayKey(restaurantId, d)))
+                .toList();
+        if (missing.isEmpty()) return;
+
+        long seen = modifications.get();
+        Map<LocalDate, DayOccupancy> loaded = load(restaurantId, missing.getFirst(), missing.getLast());
+        for (LocalDate d : missing) {
+            keep(new DayKey(restaurantId, d), loaded.get(d), seen);
+        }
+    }
+
+    /**
+     * Loads a day for many restaurants at once with one table and one timeslot query.
+     *
+     * @param restaurantIds IDs of the restaurants
+     * @param day Date of interest
+     */
+    public void preloadDay(Collection<Long> restaurantIds, LocalDate day) {
+        List<Long> missing = restaurantIds.stream()
+                .filter(id -> !days.containsKey(new DayKey(id, day)))
+                .toList();
+        if (missing.isEmpty()) return;
+
+        long seen = modifications.get();
+
+        Map<Long, List<TableState>> tablesByRestaurant = tableRepository.findTableStates(missing).stream()
+                .collect(Collectors.groupingBy(TableState::restaurantId));
+        Map<Long, Long> restaurantByTable = new HashMap<>();
+        Map<Long, DayOccupancy> loaded = new HashMap<>();
+        for (Long id : missing) {
+            List<TableState> tables = tablesByRestaurant.getOrDefault(id, List.of());
+            tables.forEach(t -> restaurantByTable.put(t.tableId(), id));
+            loaded.put(id, new DayOccupancy(day, tables));
+        }
+
+        for (SlotState s : slotStates(missing, day.atStartOfDay(), day.plusDays(1).atStartOfDay())) {
+            if (s.userId() != null) continue;
+            DayOccupancy occupancy = loaded.get(restaurantByTable.get(s.tableId()));
+            if (occupancy != null) {
+                occupancy.setFree(s.tableId(), s.startTime(), s.startTime().plusMinutes(DayOccupancy.SLOT_MINUTES), true);
+            }
+        }
+        loaded.forEach((id, occupancy) -> keep(new DayKey(id, day), occupancy, seen));
+    }
+
+    /**
+     * Marks the given timeslots as booked once the surrounding transaction commits.
+     *
+     * @param slots Booked timeslots
+     */
+    public void markBooked(List<Timeslot> slots) {
+        TransactionHooks.afterCommit(() -> slots.forEach(s -> update(s, false)));
+    }
+
+    /**
+     * Marks the given timeslots as free once the surrounding transaction commits.
+     *
+     * @param slots Released timeslots
+     */
+    public void markFree(List<Timeslot> slots) {
+        TransactionHooks.afterCommit(() -> slots.forEach(s -> update(s, true)));
+    }
+
+    /**
+     * Marks a slot range of a table as booked without a surrounding transaction,
+     * used for bookings that are persisted later.
+     *
+     * @param restaurantId ID of the restaurant
+     * @param tableId ID of the table
+     * @param start Start of the booking
+     * @param end End of the booking
+     */
+    public void markBooked(Long restaurantId, Long tableId, LocalDateTime start, LocalDateTime end) {
+        update(restaurantId, tableId, start, end, false);
+    }
+
+    /**
+     * Marks a slot range of a table as free without a surrounding transaction,
+     * used for bookings that were marked booked but could not be persisted.
+     *
+     * @param restaurantId ID of the restaurant
+     * @param tableId ID of the table
+     * @param start Start of the booking
+     * @param end End of the booking
+     */
+    public void markFree(Long restaurantId, Long tableId, LocalDateTime start, LocalDateTime end) {
+        update(restaurantId, tableId, start, end, true);
+    }
+
+    /**
+     * Drops all cached days of a restaurant, e.g. after its tables or timeslots changed.
+     *
+     * @param restaurantId ID of the restaurant
+     */
+    public void invalidate(Long restaurantId) {
+        TransactionHooks.afterCommit(() -> {
+            modifications.incrementAndGet();
+            days.keySet().removeIf(k -> k.restaurantId().equals(restaurantId));
+            availabilityCache.invalidate(restaurantId);
+            invalidationListeners.forEach(l -> l.accept(restaurantId, null));
+        });
+    }
+
+    /**
+     * Drops a single cached day of a restaurant.
+     *
+     * @param restaurantId ID of the restaurant
+     * @param day Date to drop
+     */
+    public void invalidate(Long restaurantId, LocalDate day) {
+        TransactionHooks.afterCommit(() -> {
+            modifications.incrementAndGet();
+            days.remove(new DayKey(restaurantId, day));
+            availabilityCache.invalidate(restaurantId, day);
+            invalidationListeners.forEach(l -> l.accept(restaurantId, day));
+        });
+    }
+
+    /**
+     * Drops every cached day.
+     */
+    public void invalidateAll() {
+        TransactionHooks.afterCommit(() -> {
+            modifications.incrementAndGet();
+            days.clear();
+            availabilityCache.invalidateAll();
+            invalidationListeners.forEach(l -> l.accept(null, null));
+        });
+    }
+
+    /**
+     * Removes all days before the given date from the index.
+     *
+     * @param date First date to keep
+     */
+    public void evictBefore(LocalDate date) {
+        days.keySet().removeIf(k -> k.day().isBefore(date));
+    }
+
+    /**
+     * Adds a loaded day to the index unless another thread added it first or the index was
+     * modified since seen. The second check after adding catches an update that ran between
+     * the first check and putIfAbsent and found no day to apply itself to.
+     */
+    private DayOccupancy keep(DayKey key, DayOccupancy loaded, long seen) {
+        if (modifications.get() != seen) return loaded;
+        DayOccupancy resident = days.putIfAbsent(key, loaded);
+        if (resident != null) return resident;
+        if (modifications.get() != seen) days.remove(key, loaded);
+        return loaded;
+    }
+
+    private DayOccupancy load(DayKey key) {
+        return load(key.restaurantId(), key.day(), key.day()).get(key.day());
+    }
+
+    private Map<LocalDate, DayOccupancy> load(Long restaurantId, LocalDate from, LocalDate to) {
+        List<TableState> tables = tableRepository.findTableStates(List.of(restaurantId));
+
+        Map<LocalDate, DayOccupancy> result = new HashMap<>();
+        for (LocalDate d = from; !d.isAfter(to); d = d.plusDays(1)) {
+            result.put(d, new DayOccupancy(d, tables));
+        }
+
+        LocalDateTime start = from.atStartOfDay();
+        LocalDateTime end = to.plusDays(1).atStartOfDay();
+
+        for (SlotState s : slotStates(List.of(restaurantId), start, end)) {
+            DayOccupancy occupancy = result.get(s.startTime().toLocalDate());
+            if (occupancy != null && s.userId() == null) {
+                occupancy.setFree(s.tableId(), s.startTime(), s.startTime().plusMinutes(DayOccupancy.SLOT_MINUTES), true);
+            }
+        }
+        return result;
+    }
+
+    private List<SlotState> slotStates(List<Long> restaurantIds, LocalDateTime from, LocalDateTime to) {
+        if (virtualTimeslots.isEnabled()) return virtualTimeslots.slotStates(restaurantIds, from, to);
+        if (restaurantIds.size() == 1) return timeslotRepository.findSlotStatesForRestaurant(restaurantIds.getFirst(), from, to);
+        return timeslotRepository.findSlotStatesForRestaurants(restaurantIds, from, to);
+    }
+
+    private void update(Timeslot slot, boolean free) {
+        if (slot.getTable() == null || slot.getStartTime() == null) return;
+        update(slot.getTable().getRestaurant().getId(), slot.getTable().getId(), slot.getStartTime(), slot.getEndTime(), free);
+    }
+
+    private void update(Long restaurantId, Long tableId, LocalDateTime start, LocalDateTime end, boolean free) {
+        modifications.incrementAndGet();
+
+        DayKey key = new DayKey(restaurantId, start.toLocalDate());
+        days.computeIfPresent(key, (k, occupancy) -> {
+            occupancy.setFree(tableId, start, end, free);
+            return occupancy;
+        });
+        availabilityCache.invalidate(key.restaurantId(), key.day());
+        if (free) invalidationListeners.forEach(l -> l.accept(key.restaurantId(), key.day()));
+    }
+}
@@ -0,0 +1,14 @@
+package eva.platzda.backend.core.availability;
+
+import java.time.LocalTime;
+
+/**
+ * Opening interval of a restaurant on one weekday.
+ *
+ * @param restaurantId ID of the restaurant
+ * @param weekday Weekday (1 = Monday, 7 = Sunday)
+ * @param open Opening time
+ * @param close Closing time
+ */
+public record OpeningInterval(Long restaurantId, Integer weekday, LocalTime open, LocalTime close) {
+}
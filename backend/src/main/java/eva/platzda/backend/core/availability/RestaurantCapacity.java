@@ -0,0 +1,23 @@
+package eva.platzda.backend.core.availability;
+
+import eva.platzda.backend.core.models.BookingConcurrency;
+
+/**
+ * Aggregated seating capacity of a restaurant as read from the database.
+ *
+ * @param restaurantId ID of the restaurant
+ * @param address Address of the restaurant
+ * @param timeSlotDuration Reservation length in quarter-hours
+ * @param totalSeats Sum of all table sizes, null if the restaurant has no tables
+ * @param largestTable Size of the largest table, null if the restaurant has no tables
+ * @param bookingConcurrency Configured booking concurrency, null for the default
+ * @param maxBookingsPerUserDay Configured bookings per user and day, null for the default
+ */
+public record RestaurantCapacity(Long restaurantId,
+                                 String address,
+                                 Integer timeSlotDuration,
+                                 Long totalSeats,
+                                 Integer largestTable,
+                                 BookingConcurrency bookingConcurrency,
+                                 Integer maxBookingsPerUserDay) {
+}
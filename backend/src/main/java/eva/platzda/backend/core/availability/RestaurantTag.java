@@ -0,0 +1,10 @@
+package eva.platzda.backend.core.availability;
+
+/**
+ * A single tag of a restaurant.
+ *
+ * @param restaurantId ID of the restaurant
+ * @param tag Tag
+ */
+public record RestaurantTag(Long restaurantId, String tag) {
+}
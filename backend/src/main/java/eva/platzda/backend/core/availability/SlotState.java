@@ -0,0 +1,13 @@
+package eva.platzda.backend.core.availability;
+
+import java.time.LocalDateTime;
+
+/**
+ * Minimal read model of a timeslot row used to build the occupancy index.
+ *
+ * @param tableId ID of the table the slot belongs to
+ * @param startTime Start time of the slot
+ * @param userId ID of the booking user, null if the slot is free
+ */
+public record SlotState(Long tableId, LocalDateTime startTime, Long userId) {
+}
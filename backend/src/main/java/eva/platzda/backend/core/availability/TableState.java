@@ -0,0 +1,11 @@
+package eva.platzda.backend.core.availability;
+
+/**
+ * Minimal read model of a restaurant table used by the occupancy index.
+ *
+ * @param tableId ID of the table
+ * @param restaurantId ID of the restaurant the table belongs to
+ * @param size Number of seats
+ */
+public record TableState(Long tableId, Long restaurantId, Integer size) {
+}
@@ -0,0 +1,103 @@
+package eva.platzda.backend.core.availability;
+
+import eva.platzda.backend.core.repositories.ReservationRepository;
+import eva.platzda.backend.core.repositories.TimeslotRepository;
+import eva.platzda.backend.core.services.TimeslotGenerationService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Compares stored and computed timeslots of one restaurant.
+ *
+ * Both ways of reading the slot states of a date range are run alternately for a number
+ * of rounds, and the rows each storage mode keeps for the pregenerated horizon are counted.
+ * If stored rows exist, the two results are also checked against each other.
+ *
+ * Every round reads the live database, so the benchmark only runs with
+ * {@code platzda.timeslots.benchmark-enabled=true}.
+ */
+@Component
+public class TimeslotModeBenchmark {
+
+    private final TimeslotRepository timeslotRepository;
+    private final ReservationRepository reservationRepository;
+    private final VirtualTimeslots virtualTimeslots;
+    private final boolean enabled;
+
+    @Autowired
+    public TimeslotModeBenchmark(TimeslotRepository timeslotRepository,
+                                 ReservationRepository reservationRepository,
+                                 VirtualTimeslots virtualTimeslots,
+                                 @Value("${platzda.timeslots.benchmark-enabled:false}") boolean enabled) {
+        this.timeslotRepository = timeslotRepository;
+        this.reservationRepository = reservationRepository;
+        this.virtualTimeslots = virtualTimeslots;
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Runs the comparison.
+     *
+     * @param restaurantId ID of the restaurant
+     * @param days Number of days to read per round, starting today
+     * @param rounds Number of rounds per mode
+     * @return Row counts, average and maximum read latency per mode and mismatches as String
+     */
+    public String compare(Long restaurantId, int days, int rounds) {
+        LocalDate today = LocalDate.now();
+        LocalDateTime from = today.atStartOfDay();
+        LocalDateTime to = today.plusDays(Math.max(days, 1)).atStartOfDay();
+
+        long storedNanos = 0, storedMax = 0, computedNanos = 0, computedMax = 0;
+        List<SlotState> stored = List.of();
+        List<SlotState> computed = List.of();
+        for (int round = 0; round < rounds; round++) {
+            long begin = System.nanoTime();
+            stored = timeslotRepository.findSlotStatesForRestaurant(restaurantId, from, to);
+            long t = System.nanoTime() - begin;
+            storedNanos += t;
+            storedMax = Math.max(storedMax, t);
+
+            begin = System.nanoTime();
+            computed = virtualTimeslots.slotStates(List.of(restaurantId), from, to);
+            t = System.nanoTime() - begin;
+            computedNanos += t;
+            computedMax = Math.max(computedMax, t);
+        }
+
+        LocalDateTime horizon = today.plusWeeks(TimeslotGenerationService.WEEKS_PREGENERATED).plusDays(1).atStartOfDay();
+        int horizonSlots = virtualTimeslots.slotStates(List.of(restaurantId), from, horizon).size();
+
+        String mismatches = "n/a (no stored rows)";
+        if (!stored.isEmpty()) {
+            Set<SlotState> a = new HashSet<>(stored);
+            Set<SlotState> b = new HashSet<>(computed);
+            Set<SlotState> onlyStored = new HashSet<>(a);
+            onlyStored.removeAll(b);
+            b.removeAll(a);
+            mismatches = onlyStored.size() + " only stored, " + b.size() + " only computed";
+        }
+
+        int n = Math.max(rounds, 1);
+        return "Mode: " + (virtualTimeslots.isEnabled() ? "virtual" : "materialized") + "\n"
+                + "Days read: " + Math.max(days, 1) + ", rounds: " + rounds + "\n"
+                + "Stored timeslot rows (all restaurants): " + timeslotRepository.count() + "\n"
+                + "Reservation rows (all restaurants): " + reservationRepository.count() + "\n"
+                + "Timeslot rows this restaurant needs when materialized (horizon): " + horizonSlots + "\n"
+                + "Timeslot rows this restaurant needs when virtual: 0\n"
+                + "Stored read: " + stored.size() + " slots, avg " + storedNanos / n / 1000 + " us, max " + storedMax / 1000 + " us\n"
+                + "Computed read: " + computed.size() + " slots, avg " + computedNanos / n / 1000 + " us, max " + computedMax / 1000 + " us\n"
+                + "Mismatches: " + mismatches;
+    }
+}
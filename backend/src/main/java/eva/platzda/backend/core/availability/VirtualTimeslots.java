@@ -0,0 +1,216 @@
+package eva.platzda.backend.core.availability;
+
+import eva.platzda.backend.core.models.Reservation;
+import eva.platzda.backend.core.models.RestaurantTable;
+import eva.platzda.backend.core.models.Timeslot;
+import eva.platzda.backend.core.repositories.HoursRepository;
+import eva.platzda.backend.core.repositories.ReservationRepository;
+import eva.platzda.backend.core.repositories.TableRepository;
+import eva.platzda.backend.core.repositories.UserRepository;
+import eva.platzda.backend.core.repositories.projections.ReservationView;
+import eva.platzda.backend.core.repositories.projections.TimeslotView;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Timeslots computed from opening hours and reservations instead of being stored.
+ *
+ * With {@code platzda.timeslots.mode=virtual} no timeslot rows are generated. A table has a
+ * slot for every quarter-hour within the opening hours of the restaurant, using the same
+ * alignment as the generated rows, and the slot is booked if a reservation of the table
+ * covers it. Only reservations are persisted.
+ *
+ * Bookings lock the tables of the restaurant instead of timeslot rows and work on transient
+ * {@link Timeslot} objects, so the allocation code is shared with the materialized mode.
+ * The derivation itself does not depend on the mode and is also used by the benchmark.
+ */
+@Component
+public class VirtualTimeslots {
+
+    private final boolean enabled;
+
+    private final TableRepository tableRepository;
+    private final HoursRepository hoursRepository;
+    private final ReservationRepository reservationRepository;
+    private final UserRepository userRepository;
+
+    @Autowired
+    public VirtualTimeslots(@Value("${platzda.timeslots.mode:materialized}") String mode,
+                            @Value("${platzda.booking.mode:locking}") String bookingMode,
+                            TableRepository tableRepository,
+                            HoursRepository hoursRepository,
+                            ReservationRepository reservationRepository,
+                            UserRepository userRepository) {
+        this.enabled = "virtual".equalsIgnoreCase(mode);
+        if (enabled && "lock-free".equalsIgnoreCase(bookingMode)) {
+            //the write-behind queue assigns bookings to stored timeslot rows
+            throw new IllegalStateException("platzda.timeslots.mode=virtual requires platzda.booking.mode=locking");
+        }
+        this.tableRepository = tableRepository;
+        this.hoursRepository = hoursRepository;
+        this.reservationRepository = reservationRepository;
+        this.userRepository = userRepository;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Computes the slot states of all tables of the given restaurants.
+     *
+     * @param restaurantIds IDs of the restaurants
+     * @param from Start of the range
+     * @param to End of the range (exclusive)
+     * @return One state per table and quarter-hour within the opening hours
+     */
+    public List<SlotState> slotStates(Collection<Long> restaurantIds, LocalDateTime from, LocalDateTime to) {
+        List<SlotState> result = new ArrayList<>();
+        derive(restaurantIds, from, to, (table, start, userId) -> result.add(new SlotState(table.tableId(), start, userId)));
+        return result;
+    }
+
+    /**
+     * Computes the timeslots of all tables of the given restaurants as read-only views.
+     *
+     * @param restaurantIds IDs of the restaurants
+     * @param from Start of the range
+     * @param to End of the range (exclusive)
+     * @return Timeslots without IDs
+     */
+    public List<TimeslotView> views(Collection<Long> restaurantIds, LocalDateTime from, LocalDateTime to) {
+        List<TimeslotView> result = new ArrayList<>();
+        derive(restaurantIds, from, to, (table, start, userId) ->
+                result.add(new TimeslotView(null, table.tableId(), start, start.plusMinutes(DayOccupancy.SLOT_MINUTES), userId)));
+        return result;
+    }
+
+    /**
+     * Locks the tables of a restaurant in ID order and computes their timeslots within a range.
+     *
+     * Must be called inside a transaction; the lock serializes bookings of the restaurant like
+     * the row locks on stored timeslots do. The returned slots are transient and must not be saved.
+     *
+     * @param restaurantId ID of the restaurant
+     * @param from Start of the range
+     * @param to End of the range (exclusive)
+     * @return Timeslots ordered by table and start time, booked ones carry their user
+     */
+    public List<Timeslot> slotsForUpdate(Long restaurantId, LocalDateTime from, LocalDateTime to) {
+        Map<Long, RestaurantTable> tables = tableRepository.findByRestaurantIdForUpdate(restaurantId).stream()
+                .collect(Collectors.toMap(RestaurantTable::getId, t -> t));
+
+        List<Timeslot> result = new ArrayList<>();
+        derive(List.of(restaurantId), from, to, (table, start, userId) -> {
+            RestaurantTable t = tables.get(table.tableId());
+            if (t == null) return;
+            result.add(new Timeslot(t, start, start.plusMinutes(DayOccupancy.SLOT_MINUTES),
+                    userId == null ? null : userRepository.getReferenceById(userId)));
+        });
+        return result;
+    }
+
+    /**
+     * Returns the transient timeslots covered by a reservation, e.g. to release them in the occupancy index.
+     *
+     * @param reservation Reservation
+     * @return One slot per quarter-hour of the reservation
+     */
+    public List<Timeslot> slotsOf(Reservation reservation) {
+        List<Timeslot> result = new ArrayList<>();
+        for (LocalDateTime s = reservation.getStartTime(); s.isBefore(reservation.getEndTime()); s = s.plusMinutes(DayOccupancy.SLOT_MINUTES)) {
+            result.add(new Timeslot(reservation.getRestaurantTable(), s, s.plusMinutes(DayOccupancy.SLOT_MINUTES), null));
+        }
+        return result;
+    }
+
+    /**
+     * Lists the quarter-hour starts of an opening interval on a date.
+     *
+     * The opening time is rounded to the nearest quarter-hour; only slots that end
+     * before or at closing time are included.
+     *
+     * @param date Date of the interval
+     * @param open Opening time
+     * @param close Closing time
+     * @return Slot starts in ascending order
+     */
+    public static List<LocalDateTime> quarterStarts(LocalDate date, LocalTime open, LocalTime close) {
+        List<LocalDateTime> result = new ArrayList<>();
+        if (open == null || close == null || !close.isAfter(open)) return result;
+
+        LocalDateTime cursor = LocalDateTime.of(date, alignToQuarter(open));
+        LocalDateTime end = LocalDateTime.of(date, close);
+        while (!cursor.plusMinutes(DayOccupancy.SLOT_MINUTES).isAfter(end)) {
+            result.add(cursor);
+            cursor = cursor.plusMinutes(DayOccupancy.SLOT_MINUTES);
+        }
+        return result;
+    }
+
+    /**
+     * Rounds a time to the nearest quarter-hour within the same hour.
+     *
+     * @param t Time to round
+     * @return Rounded time
+     */
+    public static LocalTime alignToQuarter(LocalTime t) {
+        int minute = t.getMinute();
+        int quarters = (minute + 7) / 15;
+        int aligned = quarters * 15;
+        if (aligned >= 60) aligned = 45; //Fallback
+        return LocalTime.of(t.getHour(), aligned, 0);
+    }
+
+    private interface SlotConsumer {
+        void accept(TableState table, LocalDateTime start, Long userId);
+    }
+
+    private void derive(Collection<Long> restaurantIds, LocalDateTime from, LocalDateTime to, SlotConsumer consumer) {
+        if (restaurantIds.isEmpty() || !from.isBefore(to)) return;
+
+        Map<Long, List<TableState>> tablesByRestaurant = tableRepository.findTableStates(restaurantIds).stream()
+                .collect(Collectors.groupingBy(TableState::restaurantId));
+        Map<Long, Map<Integer, List<OpeningInterval>>> hours = hoursRepository.findOpeningIntervals(restaurantIds).stream()
+                .collect(Collectors.groupingBy(OpeningInterval::restaurantId, Collectors.groupingBy(OpeningInterval::weekday)));
+
+        //table -> slot start -> booking user
+        Map<Long, Map<LocalDateTime, Long>> bookedBy = new HashMap<>();
+        for (ReservationView r : reservationRepository.findOverlappingForRestaurants(restaurantIds, from, to)) {
+            Map<LocalDateTime, Long> slots = bookedBy.computeIfAbsent(r.tableId(), id -> new HashMap<>());
+            for (LocalDateTime s = r.startTime(); s.isBefore(r.endTime()); s = s.plusMinutes(DayOccupancy.SLOT_MINUTES)) {
+                slots.put(s, r.userId());
+            }
+        }
+
+        for (Long restaurantId : restaurantIds) {
+            List<TableState> tables = tablesByRestaurant.getOrDefault(restaurantId, List.of()).stream()
+                    .sorted((a, b) -> a.tableId().compareTo(b.tableId()))
+                    .toList();
+            Map<Integer, List<OpeningInterval>> byWeekday = hours.getOrDefault(restaurantId, Map.of());
+
+            for (TableState table : tables) {
+                Map<LocalDateTime, Long> booked = bookedBy.getOrDefault(table.tableId(), Map.of());
+                for (LocalDate day = from.toLocalDate(); day.atStartOfDay().isBefore(to); day = day.plusDays(1)) {
+                    for (OpeningInterval interval : byWeekday.getOrDefault(day.getDayOfWeek().getValue(), List.of())) {
+                        for (LocalDateTime start : quarterStarts(day, interval.open(), interval.close())) {
+                            if (start.isBefore(from) || !start.isBefore(to)) continue;
+                            consumer.accept(table, start, booked.get(start));
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package eva.platzda.backend.core.booking;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Chooses the combination of tables with the fewest empty seats.
+ *
+ * Runs a 0/1 subset-sum over the table sizes up to guests plus the largest table. Among
+ * combinations with equally few empty seats the one with fewer tables wins, and among
+ * those the one built from smaller tables, keeping large tables free for later parties.
+ */
+public class BestFitTableAllocator implements TableAllocator {
+
+    private static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    @Override
+    public List<Integer> allocate(int[] sizes, int guests) {
+        if (guests <= 0) return List.of();
+
+        int largest = 0;
+        for (int size : sizes) largest = Math.max(largest, size);
+        int capacity = guests + largest;
+
+        //tables[i][s]: fewest tables among the first i that sum up to exactly s seats
+        int[][] tables = new int[sizes.length + 1][capacity + 1];
+        for (int s = 1; s <= capacity; s++) tables[0][s] = UNREACHABLE;
+
+        for (int i = 1; i <= sizes.length; i++) {
+            int size = Math.max(sizes[i - 1], 0);
+            for (int s = 0; s <= capacity; s++) {
+                tables[i][s] = tables[i - 1][s];
+                if (size > 0 && s >= size && tables[i - 1][s - size] != UNREACHABLE) {
+                    tables[i][s] = Math.min(tables[i][s], tables[i - 1][s - size] + 1);
+                }
+            }
+        }
+
+        int best = -1;
+        for (int s = guests; s <= capacity; s++) {
+            if (tables[sizes.length][s] != UNREACHABLE) {
+                best = s;
+                break;
+            }
+        }
+        if (best < 0) return List.of();
+
+        //walk back, skipping tables whenever the same count is reachable without them
+        List<Integer> chosen = new ArrayList<>();
+        int s = best;
+        for (int i = sizes.length; i > 0 && s > 0; i--) {
+            if (tables[i][s] == tables[i - 1][s]) continue;
+            chosen.add(i - 1);
+            s -= sizes[i - 1];
+        }
+        return chosen.reversed();
+    }
+}
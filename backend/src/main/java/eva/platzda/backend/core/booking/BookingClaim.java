@@ -0,0 +1,59 @@
+package eva.platzda.backend.core.booking;
+
+import java.time.LocalDateTime;
+
+/**
+ * A table claimed in memory by the {@link LockFreeBookingEngine} that still has to be persisted.
+ *
+ * @param sequence Position in the write-behind journal
+ * @param restaurantId ID of the restaurant
+ * @param tableId ID of the claimed table
+ * @param userId ID of the user
+ * @param start Start of the reservation
+ * @param end End of the reservation
+ * @param guests Number of guests seated at this table
+ */
+public record BookingClaim(long sequence,
+                           Long restaurantId,
+                           Long tableId,
+                           Long userId,
+                           LocalDateTime start,
+                           LocalDateTime end,
+                           int guests) {
+
+    /**
+     * Returns a copy with the given journal position.
+     *
+     * @param sequence Position in the write-behind journal
+     * @return Claim with the sequence set
+     */
+    public BookingClaim withSequence(long sequence) {
+        return new BookingClaim(sequence, restaurantId, tableId, userId, start, end, guests);
+    }
+
+    /**
+     * Serializes the claim as one journal line.
+     *
+     * @return Line without line separator
+     */
+    String toLine() {
+        return sequence + ";" + restaurantId + ";" + tableId + ";" + userId + ";" + start + ";" + end + ";" + guests;
+    }
+
+    /**
+     * Parses a journal line written by {@link #toLine()}.
+     *
+     * @param line Journal line
+     * @return Parsed claim
+     */
+    static BookingClaim fromLine(String line) {
+        String[] parts = line.split(";");
+        return new BookingClaim(Long.parseLong(parts[0]),
+                Long.valueOf(parts[1]),
+                Long.valueOf(parts[2]),
+                Long.valueOf(parts[3]),
+                LocalDateTime.parse(parts[4]),
+                LocalDateTime.parse(parts[5]),
+                Integer.parseInt(parts[6]));
+    }
+}
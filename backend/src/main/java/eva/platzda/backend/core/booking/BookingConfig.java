@@ -0,0 +1,21 @@
+package eva.platzda.backend.core.booking;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class BookingConfig {
+
+    /**
+     * Table allocation strategy, selected with platzda.booking.allocator ("greedy" or "best-fit").
+     */
+    @Bean
+    public TableAllocator tableAllocator(@Value("${platzda.booking.allocator:greedy}") String allocator) {
+        return switch (allocator.toLowerCase()) {
+            case "best-fit" -> new BestFitTableAllocator();
+            case "greedy" -> new GreedyTableAllocator();
+            default -> throw new IllegalArgumentException("Unknown table allocator: " + allocator);
+        };
+    }
+}
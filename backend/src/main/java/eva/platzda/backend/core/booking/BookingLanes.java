@@ -0,0 +1,137 @@
+package eva.platzda.backend.core.booking;
+
+import eva.platzda.backend.error_handling.ServiceBusyException;
+import eva.platzda.backend.logging.QueryCountInspector;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Routes bookings to one of a fixed number of single-threaded lanes, keyed by restaurant.
+ *
+ * All bookings of a restaurant run one after another on the same lane, so they never wait
+ * on each other's row locks, while restaurants on different lanes are booked in parallel.
+ * Each lane has a bounded queue; a booking that finds its lane full is rejected right away.
+ * Lanes do not replace the row locks: cancellations, the waitlist, timeslot updates and
+ * bookings of other instances do not run on a lane and still rely on the locking queries.
+ * Statements run on a lane are added to the query count of the calling request.
+ *
+ * Enabled with {@code platzda.booking.lanes.enabled=true}.
+ */
+@Component
+public class BookingLanes implements DisposableBean {
+
+    private final boolean enabled;
+    private final ThreadPoolExecutor[] lanes;
+
+    private final AtomicLong[] submitted;
+    private final AtomicLong[] rejected;
+    private final AtomicLong[] maxDepth;
+
+    public BookingLanes(@Value("${platzda.booking.lanes.enabled:false}") boolean enabled,
+                        @Value("${platzda.booking.lanes.count:8}") int count,
+                        @Value("${platzda.booking.lanes.capacity:100}") int capacity) {
+        this.enabled = enabled;
+        int n = enabled ? count : 0;
+        this.lanes = new ThreadPoolExecutor[n];
+        this.submitted = new AtomicLong[n];
+        this.rejected = new AtomicLong[n];
+        this.maxDepth = new AtomicLong[n];
+
+        for (int i = 0; i < n; i++) {
+            int lane = i;
+            lanes[i] = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(capacity), r -> {
+                Thread t = new Thread(r, "booking-lane-" + lane);
+                t.setDaemon(true);
+                return t;
+            }, new ThreadPoolExecutor.AbortPolicy());
+            submitted[i] = new AtomicLong();
+            rejected[i] = new AtomicLong();
+            maxDepth[i] = new AtomicLong();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Runs a booking on the lane of its restaurant and waits for the result.
+     *
+     * @param restaurantId ID of the restaurant, selects the lane
+     * @param booking Booking to run
+     * @return Result of the booking
+     * @throws ServiceBusyException if the lane's queue is full
+     */
+    public <T> T run(Long restaurantId, Supplier<T> booking) {
+        if (!enabled) return booking.get();
+
+        int lane = Math.floorMod(restaurantId.hashCode(), lanes.length);
+        int[] statements = new int[1];
+        Future<T> future;
+        try {
+            future = lanes[lane].submit(() -> {
+                QueryCountInspector.reset();
+                try {
+                    return booking.get();
+                } finally {
+                    statements[0] = QueryCountInspector.current();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected[lane].incrementAndGet();
+            throw new ServiceBusyException("Too many pending bookings for this restaurant, please try again shortly.");
+        }
+        submitted[lane].incrementAndGet();
+        maxDepth[lane].accumulateAndGet(lanes[lane].getQueue().size(), Math::max);
+
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(false);
+            throw new ServiceBusyException("Booking was interrupted, please try again.");
+        } finally {
+            if (future.isDone() && !future.isCancelled()) QueryCountInspector.add(statements[0]);
+        }
+    }
+
+    /**
+     * Returns the lane statistics.
+     *
+     * @return Queue depth, maximum depth, submitted and rejected bookings per lane as String
+     */
+    public String getStats() {
+        if (!enabled) return "Booking lanes disabled";
+
+        StringBuilder stats = new StringBuilder();
+        for (int i = 0; i < lanes.length; i++) {
+            stats.append("Lane ").append(i).append(": ")
+                    .append("queued ").append(lanes[i].getQueue().size())
+                    .append(", max queued ").append(maxDepth[i].get())
+                    .append(", submitted ").append(submitted[i].get())
+                    .append(", rejected ").append(rejected[i].get())
+                    .append("\n");
+        }
+        return stats.toString();
+    }
+
+    @Override
+    public void destroy() {
+        for (ThreadPoolExecutor lane : lanes) {
+            lane.shutdownNow();
+        }
+    }
+}
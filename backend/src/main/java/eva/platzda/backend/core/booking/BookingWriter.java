@@ -0,0 +1,94 @@
+package eva.platzda.backend.core.booking;
+
+import eva.platzda.backend.core.availability.DayOccupancy;
+import eva.platzda.backend.core.availability.TransactionHooks;
+import eva.platzda.backend.core.models.Reservation;
+import eva.platzda.backend.core.models.RestaurantTable;
+import eva.platzda.backend.core.models.User;
+import eva.platzda.backend.core.notifications.NotificationSocket;
+import eva.platzda.backend.core.repositories.ReservationRepository;
+import eva.platzda.backend.core.repositories.TableRepository;
+import eva.platzda.backend.core.repositories.TimeslotRepository;
+import eva.platzda.backend.core.repositories.UserRepository;
+import jakarta.transaction.Transactional;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Persists batches of claimed bookings for the {@link LockFreeBookingEngine}.
+ */
+@Service
+public class BookingWriter {
+
+    private final TimeslotRepository timeslotRepository;
+    private final TableRepository tableRepository;
+    private final UserRepository userRepository;
+    private final ReservationRepository reservationRepository;
+    private final NotificationSocket notificationSocket;
+
+    @Autowired
+    public BookingWriter(TimeslotRepository timeslotRepository,
+                         TableRepository tableRepository,
+                         UserRepository userRepository,
+                         ReservationRepository reservationRepository,
+                         NotificationSocket notificationSocket) {
+        this.timeslotRepository = timeslotRepository;
+        this.tableRepository = tableRepository;
+        this.userRepository = userRepository;
+        this.reservationRepository = reservationRepository;
+        this.notificationSocket = notificationSocket;
+    }
+
+    /**
+     * Writes the timeslots and reservations of a batch of claims in one transaction.
+     *
+     * Claims whose table, user or timeslots no longer exist, or whose timeslots are already
+     * taken (e.g. when the journal is replayed twice), are skipped and returned.
+     *
+     * @param claims Claims in journal order
+     * @return Claims that could not be persisted
+     */
+    @Transactional
+    public List<BookingClaim> persist(List<BookingClaim> claims) {
+        Map<Long, RestaurantTable> tables = tableRepository.findAllById(claims.stream().map(BookingClaim::tableId).distinct().toList())
+                .stream().collect(Collectors.toMap(RestaurantTable::getId, Function.identity()));
+        Map<Long, User> users = userRepository.findAllById(claims.stream().map(BookingClaim::userId).distinct().toList())
+                .stream().collect(Collectors.toMap(User::getId, Function.identity()));
+
+        List<BookingClaim> rejected = new ArrayList<>();
+        List<Reservation> reservations = new ArrayList<>();
+
+        for (BookingClaim c : claims) {
+            RestaurantTable table = tables.get(c.tableId());
+            User user = users.get(c.userId());
+            long expected = Duration.between(c.start(), c.end()).toMinutes() / DayOccupancy.SLOT_MINUTES;
+
+            if (table == null || user == null
+                    || timeslotRepository.countFreeSlots(c.tableId(), c.start(), c.end()) < expected) {
+                rejected.add(c);
+                continue;
+            }
+
+            timeslotRepository.assignFreeSlots(c.tableId(), user, c.start(), c.end());
+            reservations.add(new Reservation(table, user, c.start(), c.end(), c.guests()));
+        }
+
+        List<Reservation> saved = reservationRepository.saveAll(reservations);
+
+        TransactionHooks.afterCommit(() -> {
+            for (Reservation r : saved) {
+                String msg = "Reservation for table " + r.getRestaurantTable().getId() + " has been booked from " + r.getStartTime() + " to " + r.getEndTime();
+                notificationSocket.notifyChange(r, msg);
+            }
+        });
+
+        return rejected;
+    }
+}
@@ -0,0 +1,166 @@
+package eva.platzda.backend.core.booking;
+
+import eva.platzda.backend.core.availability.DayOccupancy;
+import eva.platzda.backend.core.availability.TableState;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Claimable occupancy of all tables of one restaurant on one day.
+ *
+ * Every table owns two atomic long words with one bit per quarter-hour (bit 0 = 00:00);
+ * a set bit means that the timeslot exists and is still free. Claims clear their range
+ * with compare-and-set, so concurrent bookings never block each other.
+ *
+ * Tables are ordered by size, like the allocation in bookSlot expects them.
+ */
+final class ClaimBoard {
+
+    private static final int WORDS = 2;
+
+    private final Long[] tableIds;
+    private final int[] tableSizes;
+    private final AtomicLongArray words;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile boolean retired;
+
+    ClaimBoard(List<TableState> tables) {
+        List<TableState> sorted = tables.stream()
+                .sorted(Comparator.comparing((TableState t) -> t.size() == null ? 0 : t.size()).thenComparing(TableState::tableId))
+                .toList();
+        this.tableIds = new Long[sorted.size()];
+        this.tableSizes = new int[sorted.size()];
+        for (int i = 0; i < sorted.size(); i++) {
+            tableIds[i] = sorted.get(i).tableId();
+            tableSizes[i] = sorted.get(i).size() == null ? 0 : sorted.get(i).size();
+        }
+        this.words = new AtomicLongArray(sorted.size() * WORDS);
+    }
+
+    int getTableCount() {
+        return tableIds.length;
+    }
+
+    Long getTableId(int idx) {
+        return tableIds[idx];
+    }
+
+    int getTableSize(int idx) {
+        return tableSizes[idx];
+    }
+
+    int indexOf(Long tableId) {
+        for (int i = 0; i < tableIds.length; i++) {
+            if (tableIds[i].equals(tableId)) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Checks whether length quarter-hours of a table starting at a slot are currently free.
+     *
+     * @param idx Table index
+     * @param from First slot
+     * @param length Number of slots
+     * @return true if every slot is free
+     */
+    boolean isFree(int idx, int from, int length) {
+        if (from < 0 || length <= 0 || from + length > DayOccupancy.SLOTS_PER_DAY) return false;
+        for (int w = 0; w < WORDS; w++) {
+            long mask = mask(from, from + length, w);
+            if ((words.get(idx * WORDS + w) & mask) != mask) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Atomically claims length quarter-hours of a table starting at a slot.
+     *
+     * @param idx Table index
+     * @param from First slot
+     * @param length Number of slots
+     * @return true if every slot was free and is now claimed, false if nothing was changed
+     */
+    boolean claim(int idx, int from, int length) {
+        if (from < 0 || length <= 0 || from + length > DayOccupancy.SLOTS_PER_DAY) return false;
+
+        for (int w = 0; w < WORDS; w++) {
+            long mask = mask(from, from + length, w);
+            if (mask == 0) continue;
+
+            int pos = idx * WORDS + w;
+            while (true) {
+                long current = words.get(pos);
+                if ((current & mask) != mask) {
+                    //undo the words that were already claimed
+                    for (int u = 0; u < w; u++) {
+                        setBits(idx, u, mask(from, from + length, u));
+                    }
+                    return false;
+                }
+                if (words.compareAndSet(pos, current, current & ~mask)) break;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Releases length quarter-hours of a table starting at a slot.
+     *
+     * @param idx Table index
+     * @param from First slot
+     * @param length Number of slots
+     */
+    void release(int idx, int from, int length) {
+        if (from < 0 || length <= 0 || from + length > DayOccupancy.SLOTS_PER_DAY) return;
+        for (int w = 0; w < WORDS; w++) {
+            setBits(idx, w, mask(from, from + length, w));
+        }
+    }
+
+    /**
+     * Enters the board for a claim or release; every successful call must be paired with {@link #exit()}.
+     *
+     * @return false if the board has been retired and must be looked up again
+     */
+    boolean enter() {
+        inFlight.incrementAndGet();
+        if (retired) {
+            inFlight.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    void exit() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * Retires the board and waits until no claim is running on it anymore.
+     * Afterwards every claim made on this board is visible in the write-behind queue.
+     */
+    void retire() {
+        retired = true;
+        while (inFlight.get() != 0) {
+            Thread.onSpinWait();
+        }
+    }
+
+    private void setBits(int idx, int word, long mask) {
+        if (mask != 0) words.getAndAccumulate(idx * WORDS + word, mask, (current, m) -> current | m);
+    }
+
+    private static long mask(int from, int to, int word) {
+        int lo = Math.max(from, word << 6);
+        int hi = Math.min(to, (word + 1) << 6);
+        if (lo >= hi) return 0;
+        int n = hi - lo;
+        long bits = n == 64 ? -1L : (1L << n) - 1;
+        return bits << (lo & 63);
+    }
+}
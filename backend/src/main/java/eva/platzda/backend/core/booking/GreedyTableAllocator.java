@@ -0,0 +1,34 @@
+package eva.platzda.backend.core.booking;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Takes the smallest table that fits the remaining guests, otherwise the largest table left,
+ * until the party is seated.
+ */
+public class GreedyTableAllocator implements TableAllocator {
+
+    @Override
+    public List<Integer> allocate(int[] sizes, int guests) {
+        List<Integer> available = new ArrayList<>();
+        for (int i = 0; i < sizes.length; i++) available.add(i);
+
+        List<Integer> chosen = new ArrayList<>();
+        int assigned = 0;
+        while (assigned < guests && !available.isEmpty()) {
+            int missingSpace = guests - assigned;
+
+            Integer selected = available.stream()
+                    .filter(i -> sizes[i] >= missingSpace)
+                    .findFirst()
+                    .orElse(available.getLast());
+            available.remove(selected);
+
+            if (sizes[selected] <= 0) continue;
+            chosen.add(selected);
+            assigned += sizes[selected];
+        }
+        return assigned >= guests ? chosen : List.of();
+    }
+}
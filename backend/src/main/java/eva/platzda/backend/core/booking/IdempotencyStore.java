@@ -0,0 +1,204 @@
+package eva.platzda.backend.core.booking;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import eva.platzda.backend.core.dtos.ReservationDto;
+import eva.platzda.backend.core.models.IdempotencyRecord;
+import eva.platzda.backend.core.repositories.IdempotencyRecordRepository;
+import eva.platzda.backend.error_handling.BadRequestBodyException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Remembers the results of reservation requests by their Idempotency-Key.
+ *
+ * Completed results are kept in a bounded least-recently-used map and expire after a fixed age.
+ * With {@code platzda.idempotency.persistent=true} they are also written to the database, so
+ * retries are recognised after the entry was evicted or the instance restarted. A retry that
+ * arrives while the original request is still running waits for its result. Failed requests
+ * are not remembered and may be retried.
+ */
+@Component
+public class IdempotencyStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyStore.class);
+
+    private record Entry(String fingerprint, List<ReservationDto> result, long createdAt) {
+    }
+
+    private record Running(String fingerprint, CompletableFuture<List<ReservationDto>> result) {
+    }
+
+    private final int maxEntries;
+    private final long ttlSeconds;
+    private final boolean persistent;
+
+    private final IdempotencyRecordRepository repository;
+    private final ObjectMapper objectMapper;
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, Running> running = new ConcurrentHashMap<>();
+
+    private final AtomicLong replays = new AtomicLong();
+    private final AtomicLong joined = new AtomicLong();
+    private final AtomicLong executed = new AtomicLong();
+
+    public IdempotencyStore(@Value("${platzda.idempotency.max-entries:10000}") int maxEntries,
+                            @Value("${platzda.idempotency.ttl-seconds:86400}") long ttlSeconds,
+                            @Value("${platzda.idempotency.persistent:false}") boolean persistent,
+                            IdempotencyRecordRepository repository,
+                            ObjectMapper objectMapper) {
+        this.maxEntries = maxEntries;
+        this.ttlSeconds = ttlSeconds;
+        this.persistent = persistent;
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Runs a reservation request once per key and returns the remembered result for every retry.
+     *
+     * @param key Idempotency-Key sent by the client
+     * @param fingerprint Parameters of the request, a key must not be reused with other parameters
+     * @param request Creates the reservations
+     * @return Result of the first successful execution
+     * @throws BadRequestBodyException if the key was used for a different request
+     */
+    public List<ReservationDto> execute(String key, String fingerprint, Supplier<List<ReservationDto>> request) {
+        Entry done = lookup(key);
+        if (done != null) return replay(done, fingerprint);
+
+        Running mine = new Running(fingerprint, new CompletableFuture<>());
+        Running other = running.putIfAbsent(key, mine);
+        if (other != null) {
+            checkFingerprint(other.fingerprint(), fingerprint);
+            joined.incrementAndGet();
+            try {
+                return other.result().join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException re) throw re;
+                throw e;
+            }
+        }
+
+        try {
+            //the original may have finished between the lookup and taking over the key
+            done = lookup(key);
+            if (done != null) {
+                mine.result().complete(done.result());
+                return replay(done, fingerprint);
+            }
+
+            executed.incrementAndGet();
+            List<ReservationDto> result = List.copyOf(request.get());
+            store(key, new Entry(fingerprint, result, System.currentTimeMillis()));
+            mine.result().complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            mine.result().completeExceptionally(e);
+            throw e;
+        } finally {
+            running.remove(key, mine);
+        }
+    }
+
+    /**
+     * Removes expired persisted results.
+     */
+    @Scheduled(fixedDelayString = "${platzda.idempotency.cleanup-interval-ms:600000}")
+    @Transactional
+    public void purgeExpired() {
+        if (!persistent) return;
+        int removed = repository.deleteCreatedBefore(LocalDateTime.now().minusSeconds(ttlSeconds));
+        if (removed > 0) logger.info("Removed {} expired idempotency records", removed);
+    }
+
+    /**
+     * Returns the store statistics.
+     *
+     * @return Size, replays, joined and executed requests as String
+     */
+    public String getStats() {
+        int size;
+        synchronized (this) {
+            size = entries.size();
+        }
+        return "Entries: " + size + "/" + maxEntries + "\n"
+                + "Persistent: " + persistent + "\n"
+                + "Executed: " + executed.get() + "\n"
+                + "Replayed: " + replays.get() + "\n"
+                + "Joined running: " + joined.get();
+    }
+
+    private List<ReservationDto> replay(Entry done, String fingerprint) {
+        checkFingerprint(done.fingerprint(), fingerprint);
+        replays.incrementAndGet();
+        return done.result();
+    }
+
+    private static void checkFingerprint(String original, String fingerprint) {
+        if (!original.equals(fingerprint)) {
+            throw new BadRequestBodyException("Idempotency-Key was already used for a different request");
+        }
+    }
+
+    private Entry lookup(String key) {
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null && now - entry.createdAt() < ttlSeconds * 1000) return entry;
+            if (entry != null) entries.remove(key);
+        }
+        if (!persistent) return null;
+
+        IdempotencyRecord record = repository.findById(key).orElse(null);
+        if (record == null || record.getCreatedAt().isBefore(LocalDateTime.now().minusSeconds(ttlSeconds))) return null;
+
+        try {
+            List<ReservationDto> result = objectMapper.readValue(record.getResponse(), new TypeReference<List<ReservationDto>>() {});
+            Entry entry = new Entry(record.getFingerprint(), List.copyOf(result), now);
+            remember(key, entry);
+            return entry;
+        } catch (JsonProcessingException e) {
+            logger.warn("Ignoring unreadable idempotency record {}: {}", key, e.getMessage());
+            return null;
+        }
+    }
+
+    private void store(String key, Entry entry) {
+        remember(key, entry);
+        if (!persistent) return;
+
+        try {
+            repository.save(new IdempotencyRecord(key, entry.fingerprint(), objectMapper.writeValueAsString(entry.result()), LocalDateTime.now()));
+        } catch (JsonProcessingException | RuntimeException e) {
+            //the reservation is booked either way, only retries after eviction are affected
+            logger.warn("Could not persist idempotency record {}: {}", key, e.getMessage());
+        }
+    }
+
+    private synchronized void remember(String key, Entry entry) {
+        entries.put(key, entry);
+        Iterator<String> it = entries.keySet().iterator();
+        while (entries.size() > maxEntries && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+}
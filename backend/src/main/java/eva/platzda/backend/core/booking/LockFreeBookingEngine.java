@@ -0,0 +1,394 @@
+package eva.platzda.backend.core.booking;
+
+import eva.platzda.backend.core.availability.CapacitySummaries;
+import eva.platzda.backend.core.availability.CapacitySummary;
+import eva.platzda.backend.core.availability.DayKey;
+import eva.platzda.backend.core.availability.DayOccupancy;
+import eva.platzda.backend.core.availability.OccupancyIndex;
+import eva.platzda.backend.core.availability.SlotState;
+import eva.platzda.backend.core.availability.TableState;
+import eva.platzda.backend.core.repositories.TableRepository;
+import eva.platzda.backend.core.repositories.TimeslotRepository;
+import eva.platzda.backend.core.services.TimeslotGenerationService;
+import eva.platzda.backend.error_handling.NotEnoughCapacityException;
+import eva.platzda.backend.error_handling.NotFoundException;
+import eva.platzda.backend.error_handling.ServiceBusyException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Optional booking engine that claims tables in memory instead of locking timeslot rows.
+ *
+ * Tables are chosen by the configured {@link TableAllocator} among the tables that are free
+ * for the whole window; if another booking claims one of them first, allocation is repeated.
+ *
+ * Enabled with {@code platzda.booking.mode=lock-free}. Each restaurant day is held as a
+ * {@link ClaimBoard}; a booking claims its slot range with compare-and-set, is appended to
+ * the durable {@link WriteBehindQueue} and confirmed. The timeslots and reservations are
+ * written in batches by {@link #flush()}. At startup the journal is replayed and the
+ * boards are rebuilt from the database.
+ */
+@Component
+public class LockFreeBookingEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(LockFreeBookingEngine.class);
+
+    private static final int MAX_ALLOCATION_ATTEMPTS = 8;
+    private static final int MAX_WRITE_ATTEMPTS = 3;
+
+    private final boolean enabled;
+    private final int batchSize;
+
+    private final TableRepository tableRepository;
+    private final TimeslotRepository timeslotRepository;
+    private final CapacitySummaries capacitySummaries;
+    private final OccupancyIndex occupancyIndex;
+    private final WriteBehindQueue writeBehindQueue;
+    private final BookingWriter bookingWriter;
+    private final TableAllocator tableAllocator;
+    private final UserBookingIndex userBookingIndex;
+
+    private final Map<DayKey, ClaimBoard> boards = new ConcurrentHashMap<>();
+    //failed writes per journal sequence, a claim is rejected once it reaches MAX_WRITE_ATTEMPTS
+    private final Map<Long, Integer> writeFailures = new HashMap<>();
+
+    private final AtomicLong claimed = new AtomicLong();
+    private final AtomicLong conflicts = new AtomicLong();
+    private final AtomicLong flushed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private volatile long lastFlushMillis;
+
+    @Autowired
+    public LockFreeBookingEngine(@Value("${platzda.booking.mode:locking}") String mode,
+                                 @Value("${platzda.booking.flush-batch-size:500}") int batchSize,
+                                 TableRepository tableRepository,
+                                 TimeslotRepository timeslotRepository,
+                                 CapacitySummaries capacitySummaries,
+                                 OccupancyIndex occupancyIndex,
+                                 WriteBehindQueue writeBehindQueue,
+                                 BookingWriter bookingWriter,
+                                 TableAllocator tableAllocator,
+                                 UserBookingIndex userBookingIndex) {
+        this.enabled = "lock-free".equalsIgnoreCase(mode);
+        this.batchSize = batchSize;
+        this.tableRepository = tableRepository;
+        this.timeslotRepository = timeslotRepository;
+        this.capacitySummaries = capacitySummaries;
+        this.occupancyIndex = occupancyIndex;
+        this.writeBehindQueue = writeBehindQueue;
+        this.bookingWriter = bookingWriter;
+        this.tableAllocator = tableAllocator;
+        this.userBookingIndex = userBookingIndex;
+
+        occupancyIndex.addInvalidationListener(this::invalidate);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Books a reservation by claiming tables in memory, allocating them like bookSlot.
+     *
+     * The booking is durable once this method returns; the reservation rows are written
+     * by the next flush and therefore carry no ID yet.
+     *
+     * @param restaurantId ID of the restaurant
+     * @param userId ID of the user making the reservation
+     * @param start Start time of the reservation
+     * @param guests Number of guests
+     * @return Claimed tables with the guests seated at each
+     * @throws NotEnoughCapacityException if there is insufficient capacity to accommodate all guests
+     * @throws ServiceBusyException if the restaurant day is being reloaded
+     */
+    public List<BookingClaim> book(Long restaurantId, Long userId, LocalDateTime start, int guests) {
+        CapacitySummary summary = capacitySummaries.get(restaurantId);
+        if (summary == null) throw new NotFoundException("Restaurant with id " + restaurantId + " not found");
+
+        int from = DayOccupancy.slotIndex(start.toLocalTime());
+        int length = summary.timeSlotDuration();
+        if (from < 0 || length <= 0 || from + length > DayOccupancy.SLOTS_PER_DAY) {
+            throw new NotEnoughCapacityException();
+        }
+        LocalDateTime end = start.plusMinutes((long) length * DayOccupancy.SLOT_MINUTES);
+
+        DayKey key = new DayKey(restaurantId, start.toLocalDate());
+        //a retired board is replaced once; if the day is invalidated again meanwhile, the client retries
+        for (int attempt = 0; attempt < 2; attempt++) {
+            ClaimBoard board = boards.computeIfAbsent(key, this::load);
+            if (!board.enter()) {
+                boards.remove(key, board);
+                continue;
+            }
+            try {
+                return claim(board, restaurantId, userId, start, end, from, length, guests);
+            } finally {
+                board.exit();
+            }
+        }
+        throw new ServiceBusyException("Availability of this restaurant is being reloaded, please try again.");
+    }
+
+    /**
+     * Checks whether a user has a booking on a day that has not been persisted yet.
+     *
+     * @param userId ID of the user
+     * @param day Date to check
+     * @return true if such a booking is queued
+     */
+    public boolean hasPendingBooking(Long userId, LocalDate day) {
+        return writeBehindQueue.hasPending(userId, day);
+    }
+
+    /**
+     * Persists the oldest queued bookings in one transaction.
+     *
+     * If the batch cannot be written, its claims are written one by one so a single bad
+     * claim does not hold up the queue. A claim that keeps failing is rejected after
+     * {@value #MAX_WRITE_ATTEMPTS} flushes; the others stay queued for the next flush.
+     */
+    @Scheduled(fixedDelayString = "${platzda.booking.flush-interval-ms:200}")
+    public synchronized void flush() {
+        List<BookingClaim> queued = writeBehindQueue.peek(batchSize);
+        if (queued.isEmpty()) return;
+
+        long begin = System.currentTimeMillis();
+        List<BookingClaim> batch = queued;
+        List<BookingClaim> failed;
+        try {
+            failed = bookingWriter.persist(batch);
+        } catch (RuntimeException e) {
+            logger.warn("Writing {} queued bookings failed, writing them one by one: {}", batch.size(), e.getMessage());
+            batch = new ArrayList<>();
+            failed = new ArrayList<>();
+            for (BookingClaim c : queued) {
+                try {
+                    failed.addAll(bookingWriter.persist(List.of(c)));
+                    batch.add(c);
+                } catch (RuntimeException single) {
+                    int failures = writeFailures.merge(c.sequence(), 1, Integer::sum);
+                    if (failures < MAX_WRITE_ATTEMPTS) continue;
+                    logger.error("Writing queued booking {} failed {} times, rejecting it: {}", c.sequence(), failures, single.getMessage());
+                    failed.add(c);
+                    batch.add(c);
+                }
+            }
+        }
+        List<BookingClaim> done = batch;
+        List<BookingClaim> dropped = failed;
+        done.forEach(c -> writeFailures.remove(c.sequence()));
+        writeBehindQueue.acknowledge(done);
+        lastFlushMillis = System.currentTimeMillis() - begin;
+
+        for (BookingClaim c : done) {
+            if (dropped.contains(c)) {
+                logger.warn("Dropped queued booking {} of user {} for table {} at {}", c.sequence(), c.userId(), c.tableId(), c.start());
+                release(c);
+                //claim() marked the seats booked in the index, free-slot search has to see them again
+                occupancyIndex.markFree(c.restaurantId(), c.tableId(), c.start(), c.end());
+                //the booking counts against the daily limit as long as one of its tables was written
+                boolean kept = done.stream().anyMatch(o -> !dropped.contains(o) && o.userId().equals(c.userId())
+                        && o.restaurantId().equals(c.restaurantId()) && o.start().equals(c.start()));
+                if (!kept) userBookingIndex.removeIfCancelled(c.userId(), c.restaurantId(), c.start());
+            } else {
+                //the index may have reloaded the day from the database before this batch was written
+                occupancyIndex.markBooked(c.restaurantId(), c.tableId(), c.start(), c.end());
+            }
+        }
+        flushed.addAndGet(done.size() - dropped.size());
+        rejected.addAndGet(dropped.size());
+    }
+
+    /**
+     * Replays the journal of a previous run and rebuilds all boards of the pregenerated horizon.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recover() {
+        if (!enabled) return;
+
+        int replayed = writeBehindQueue.recover();
+        int before;
+        do {
+            before = writeBehindQueue.size();
+            flush();
+        } while (writeBehindQueue.size() > 0 && writeBehindQueue.size() < before);
+
+        boards.clear();
+        LocalDate today = LocalDate.now();
+        int loaded = preload(capacitySummaries.all().stream().map(CapacitySummary::restaurantId).toList(),
+                today, today.plusWeeks(TimeslotGenerationService.WEEKS_PREGENERATED));
+
+        logger.info("Lock-free booking engine recovered: {} journaled bookings replayed, {} restaurant days loaded", replayed, loaded);
+    }
+
+    /**
+     * Returns the engine statistics.
+     *
+     * @return Mode, claims, conflicts and write-behind progress as String
+     */
+    public String getStats() {
+        return "Mode: " + (enabled ? "lock-free" : "locking") + "\n"
+                + "Boards: " + boards.size() + "\n"
+                + "Claimed: " + claimed.get() + "\n"
+                + "Conflicts: " + conflicts.get() + "\n"
+                + "Queued: " + writeBehindQueue.size() + "\n"
+                + "Flushed: " + flushed.get() + "\n"
+                + "Rejected: " + rejected.get() + "\n"
+                + "Last flush: " + lastFlushMillis + " ms";
+    }
+
+    private List<BookingClaim> claim(ClaimBoard board,
+                                     Long restaurantId,
+                                     Long userId,
+                                     LocalDateTime start,
+                                     LocalDateTime end,
+                                     int from,
+                                     int length,
+                                     int guests) {
+        List<Integer> claimedTables = new ArrayList<>();
+        List<BookingClaim> claims = new ArrayList<>();
+
+        for (int attempt = 0; claims.isEmpty(); attempt++) {
+            List<Integer> freeTables = new ArrayList<>();
+            for (int i = 0; i < board.getTableCount(); i++) {
+                if (board.isFree(i, from, length)) freeTables.add(i);
+            }
+            int[] sizes = freeTables.stream().mapToInt(board::getTableSize).toArray();
+            List<Integer> chosen = tableAllocator.allocate(sizes, guests);
+            if (chosen.isEmpty() || attempt == MAX_ALLOCATION_ATTEMPTS) {
+                conflicts.incrementAndGet();
+                throw new NotEnoughCapacityException();
+            }
+
+            int[] seated = TableAllocator.seat(sizes, chosen, guests);
+            for (int i = 0; i < chosen.size(); i++) {
+                int table = freeTables.get(chosen.get(i));
+                if (!board.claim(table, from, length)) {
+                    //lost a race for this table, give back what was claimed and allocate again
+                    claimedTables.forEach(t -> board.release(t, from, length));
+                    claimedTables.clear();
+                    claims.clear();
+                    conflicts.incrementAndGet();
+                    break;
+                }
+                claimedTables.add(table);
+                claims.add(new BookingClaim(0, restaurantId, board.getTableId(table), userId, start, end, seated[i]));
+            }
+        }
+
+        List<BookingClaim> queued;
+        try {
+            queued = writeBehindQueue.append(claims);
+        } catch (RuntimeException e) {
+            claimedTables.forEach(i -> board.release(i, from, length));
+            throw e;
+        }
+
+        queued.forEach(c -> occupancyIndex.markBooked(c.restaurantId(), c.tableId(), c.start(), c.end()));
+        claimed.addAndGet(queued.size());
+        return queued;
+    }
+
+    private void release(BookingClaim c) {
+        DayKey key = new DayKey(c.restaurantId(), c.start().toLocalDate());
+        ClaimBoard board = boards.get(key);
+        //a retired or missing board is rebuilt from the database without this claim
+        if (board == null || !board.enter()) return;
+        try {
+            int idx = board.indexOf(c.tableId());
+            int from = DayOccupancy.slotIndex(c.start().toLocalTime());
+            int length = (int) (Duration.between(c.start(), c.end()).toMinutes() / DayOccupancy.SLOT_MINUTES);
+            if (idx >= 0) board.release(idx, from, length);
+        } finally {
+            board.exit();
+        }
+    }
+
+    private void invalidate(Long restaurantId, LocalDate day) {
+        for (Map.Entry<DayKey, ClaimBoard> e : boards.entrySet()) {
+            DayKey key = e.getKey();
+            if (restaurantId != null && !key.restaurantId().equals(restaurantId)) continue;
+            if (day != null && !key.day().equals(day)) continue;
+
+            e.getValue().retire();
+            boards.remove(key, e.getValue());
+        }
+    }
+
+    private ClaimBoard load(DayKey key) {
+        //snapshot the queue before reading the database, so a claim written in between is in at least one of them
+        List<BookingClaim> pending = writeBehindQueue.pendingFor(key.restaurantId(), key.day());
+
+        ClaimBoard board = new ClaimBoard(tableRepository.findTableStates(List.of(key.restaurantId())));
+        for (SlotState s : timeslotRepository.findSlotStatesForRestaurant(key.restaurantId(), key.day().atStartOfDay(), key.day().plusDays(1).atStartOfDay())) {
+            markFree(board, s);
+        }
+        pending.forEach(c -> applyPending(board, c));
+        return board;
+    }
+
+    private int preload(Collection<Long> restaurantIds, LocalDate from, LocalDate to) {
+        if (restaurantIds.isEmpty()) return 0;
+
+        List<BookingClaim> pending = writeBehindQueue.pendingAll();
+
+        Map<Long, List<TableState>> tablesByRestaurant = tableRepository.findTableStates(restaurantIds).stream()
+                .collect(Collectors.groupingBy(TableState::restaurantId));
+        Map<Long, Long> restaurantByTable = new HashMap<>();
+        tablesByRestaurant.forEach((id, tables) -> tables.forEach(t -> restaurantByTable.put(t.tableId(), id)));
+
+        Map<DayKey, ClaimBoard> loaded = new HashMap<>();
+        for (Long id : restaurantIds) {
+            List<TableState> tables = tablesByRestaurant.getOrDefault(id, List.of());
+            for (LocalDate d = from; !d.isAfter(to); d = d.plusDays(1)) {
+                loaded.put(new DayKey(id, d), new ClaimBoard(tables));
+            }
+        }
+
+        for (SlotState s : timeslotRepository.findSlotStatesForRestaurants(restaurantIds, from.atStartOfDay(), to.plusDays(1).atStartOfDay())) {
+            ClaimBoard board = loaded.get(new DayKey(restaurantByTable.get(s.tableId()), s.startTime().toLocalDate()));
+            if (board != null) markFree(board, s);
+        }
+        for (BookingClaim c : pending) {
+            ClaimBoard board = loaded.get(new DayKey(c.restaurantId(), c.start().toLocalDate()));
+            if (board != null) applyPending(board, c);
+        }
+
+        loaded.forEach(boards::putIfAbsent);
+        return loaded.size();
+    }
+
+    private static void markFree(ClaimBoard board, SlotState s) {
+        if (s.userId() != null) return;
+        int idx = board.indexOf(s.tableId());
+        int slot = DayOccupancy.slotIndex(s.startTime().toLocalTime());
+        if (idx >= 0 && slot >= 0) board.release(idx, slot, 1);
+    }
+
+    private static void applyPending(ClaimBoard board, BookingClaim c) {
+        int idx = board.indexOf(c.tableId());
+        int from = DayOccupancy.slotIndex(c.start().toLocalTime());
+        if (idx < 0 || from < 0) return;
+        for (LocalDateTime t = c.start(); t.isBefore(c.end()); t = t.plusMinutes(DayOccupancy.SLOT_MINUTES)) {
+            board.claim(idx, DayOccupancy.slotIndex(t.toLocalTime()), 1);
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package eva.platzda.backend.core.booking;
+
+import eva.platzda.backend.core.dtos.HoldDto;
+import eva.platzda.backend.core.dtos.ReservationDto;
+import eva.platzda.backend.core.models.Reservation;
+import eva.platzda.backend.core.notifications.NotificationSocket;
+import eva.platzda.backend.core.repositories.ReservationRepository;
+import eva.platzda.backend.core.services.ReservationService;
+import eva.platzda.backend.error_handling.BadRequestBodyException;
+import eva.platzda.backend.error_handling.NotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Two-phase bookings: tables are held for a short time and either confirmed or released.
+ *
+ * A hold books the reservations through the regular booking path, so the held timeslots are
+ * occupied for every other booking and free-slot search. That path locks timeslot rows and
+ * cannot see claims the {@link LockFreeBookingEngine} has not written yet, so holds are not
+ * offered in lock-free mode. Pending holds are kept in memory and
+ * expire through a {@link TimingWheel} that is advanced once per tick, without scanning the
+ * reservation table. An expired or released hold deletes its reservations, which frees the
+ * capacity again, and notifies the subscribers of the restaurant.
+ *
+ * Reservations still marked as held at startup belong to holds that were lost with the
+ * previous instance and are released.
+ */
+@Component
+public class ReservationHolds {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReservationHolds.class);
+
+    private record Hold(String id, Long restaurantId, List<Long> reservationIds, LocalDateTime expiresAt) {
+    }
+
+    private final ReservationService reservationService;
+    private final ReservationRepository reservationRepository;
+    private final NotificationSocket notificationSocket;
+    private final LockFreeBookingEngine lockFreeBookingEngine;
+    private final TransactionTemplate transactionTemplate;
+
+    private final long defaultSeconds;
+    private final long maxSeconds;
+
+    private final TimingWheel<Hold> wheel;
+    private final Map<String, Hold> holds = new ConcurrentHashMap<>();
+    private final Map<String, TimingWheel<Hold>.Timeout> timeouts = new ConcurrentHashMap<>();
+
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong confirmed = new AtomicLong();
+    private final AtomicLong released = new AtomicLong();
+    private final AtomicLong expired = new AtomicLong();
+
+    @Autowired
+    public ReservationHolds(ReservationService reservationService,
+                            ReservationRepository reservationRepository,
+                            NotificationSocket notificationSocket,
+                            LockFreeBookingEngine lockFreeBookingEngine,
+                            TransactionTemplate transactionTemplate,
+                            @Value("${platzda.holds.default-seconds:300}") long defaultSeconds,
+                            @Value("${platzda.holds.max-seconds:900}") long maxSeconds,
+                            @Value("${platzda.holds.tick-ms:1000}") long tickMillis,
+                            @Value("${platzda.holds.wheel-size:512}") int wheelSize) {
+        this.reservationService = reservationService;
+        this.reservationRepository = reservationRepository;
+        this.notificationSocket = notificationSocket;
+        this.lockFreeBookingEngine = lockFreeBookingEngine;
+        this.transactionTemplate = transactionTemplate;
+        this.defaultSeconds = defaultSeconds;
+        this.maxSeconds = maxSeconds;
+        this.wheel = new TimingWheel<>(tickMillis, wheelSize, System.currentTimeMillis());
+    }
+
+    /**
+     * Holds tables for a party until the hold is confirmed, released or expires.
+     *
+     * @param restaurantId ID of the restaurant
+     * @param userId ID of the user making the reservation
+     * @param start Start time of the reservation
+     * @param guests Number of guests
+     * @param seconds Duration of the hold, null or 0 for the default
+     * @return The hold with its reservations
+     * @throws BadRequestBodyException if the duration exceeds the configured maximum or lock-free booking is enabled
+     */
+    public HoldDto hold(Long restaurantId, Long userId, LocalDateTime start, int guests, Long seconds) {
+        if (lockFreeBookingEngine.isEnabled()) {
+            //a hold would take tables whose lock-free claims are still queued, and the flush would drop those bookings
+            throw new BadRequestBodyException("Holds are not available with lock-free booking");
+        }
+        long duration = seconds == null || seconds <= 0 ? defaultSeconds : seconds;
+        if (duration > maxSeconds) throw new BadRequestBodyException("Holds may last at most " + maxSeconds + " seconds");
+
+        long deadline = System.currentTimeMillis() + duration * 1000;
+        LocalDateTime expiresAt = LocalDateTime.now().plusSeconds(duration);
+
+        List<Reservation> reservations = reservationService.book(restaurantId, userId, start, guests, expiresAt);
+
+        Hold hold = new Hold(UUID.randomUUID().toString(), restaurantId, reservations.stream().map(Reservation::getId).toList(), expiresAt);
+        holds.put(hold.id(), hold);
+        timeouts.put(hold.id(), wheel.schedule(hold, deadline));
+        created.incrementAndGet();
+
+        return new HoldDto(hold.id(), expiresAt, reservations.stream().map(ReservationDto::fromObject).toList());
+    }
+
+    /**
+     * Turns a hold into regular reservations.
+     *
+     * @param holdId ID of the hold
+     * @return The confirmed reservations
+     * @throws NotFoundException if the hold does not exist, has expired or all its reservations were cancelled
+     */
+    public List<ReservationDto> confirm(String holdId) {
+        Hold hold = take(holdId);
+
+        List<Reservation> reservations = transactionTemplate.execute(status -> {
+            reservationRepository.clearHold(hold.reservationIds());
+            return reservationRepository.findAllById(hold.reservationIds());
+        });
+        if (reservations == null || reservations.isEmpty()) {
+            throw new NotFoundException("Reservations of hold " + holdId + " no longer exist");
+        }
+
+        confirmed.incrementAndGet();
+        return reservations.stream().map(ReservationDto::fromObject).toList();
+    }
+
+    /**
+     * Releases a hold before it expires.
+     *
+     * @param holdId ID of the hold
+     * @throws NotFoundException if the hold does not exist or has expired
+     */
+    public void release(String holdId) {
+        release(take(holdId), "released");
+        released.incrementAndGet();
+    }
+
+    /**
+     * Advances the timing wheel and releases every hold that has expired.
+     */
+    @Scheduled(fixedDelayString = "${platzda.holds.tick-ms:1000}")
+    public void expire() {
+        for (Hold hold : wheel.advance(System.currentTimeMillis())) {
+            //a concurrent confirm or release has already taken the hold
+            if (!holds.remove(hold.id(), hold)) continue;
+            timeouts.remove(hold.id());
+            try {
+                release(hold, "expired");
+                expired.incrementAndGet();
+            } catch (RuntimeException e) {
+                logger.error("Could not release expired hold {}: {}", hold.id(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Releases holds of a previous instance, which can no longer be confirmed.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void releaseOrphans() {
+        List<Reservation> orphans = reservationRepository.findHeld();
+        if (orphans.isEmpty()) return;
+
+        transactionTemplate.executeWithoutResult(status ->
+                reservationRepository.findAllById(orphans.stream().map(Reservation::getId).toList())
+                        .forEach(reservationService::deleteReservation));
+        logger.info("Released {} held reservations of a previous run", orphans.size());
+    }
+
+    /**
+     * Returns the hold statistics.
+     *
+     * @return Pending, created, confirmed, released and expired holds as String
+     */
+    public String getStats() {
+        return "Pending: " + holds.size() + "\n"
+                + "Scheduled timeouts: " + wheel.size() + "\n"
+                + "Created: " + created.get() + "\n"
+                + "Confirmed: " + confirmed.get() + "\n"
+                + "Released: " + released.get() + "\n"
+                + "Expired: " + expired.get();
+    }
+
+    private Hold take(String holdId) {
+        Hold hold = holds.remove(holdId);
+        if (hold == null) throw new NotFoundException("Hold " + holdId + " not found or already expired");
+
+        TimingWheel<Hold>.Timeout timeout = timeouts.remove(holdId);
+        if (timeout != null) wheel.cancel(timeout);
+        return hold;
+    }
+
+    private void release(Hold hold, String reason) {
+        transactionTemplate.executeWithoutResult(status ->
+                reservationRepository.findAllById(hold.reservationIds()).stream()
+                        //only reservations that are still held
+                        .filter(r -> r.getHeldUntil() != null)
+                        .forEach(reservationService::deleteReservation));
+
+        notificationSocket.notifyRestaurant(hold.restaurantId(),
+                "Hold " + hold.id() + " has " + reason + ", its tables are available again.");
+    }
+}
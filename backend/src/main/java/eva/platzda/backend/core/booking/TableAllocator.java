@@ -0,0 +1,39 @@
+package eva.platzda.backend.core.booking;
+
+import java.util.List;
+
+/**
+ * Strategy for choosing the tables a party is seated at.
+ *
+ * Allocators work on the sizes of tables that are already known to be free for the whole
+ * reservation window, so they never touch the database.
+ */
+public interface TableAllocator {
+
+    /**
+     * Chooses tables for a party.
+     *
+     * @param sizes Sizes of the free candidate tables, in ascending order
+     * @param guests Number of guests
+     * @return Indices into sizes of the chosen tables, empty if the party cannot be seated
+     */
+    List<Integer> allocate(int[] sizes, int guests);
+
+    /**
+     * Distributes the guests over the chosen tables, filling them in the given order.
+     *
+     * @param sizes Sizes of the candidate tables
+     * @param chosen Indices of the chosen tables
+     * @param guests Number of guests
+     * @return Guests per chosen table, in the order of chosen
+     */
+    static int[] seat(int[] sizes, List<Integer> chosen, int guests) {
+        int[] seated = new int[chosen.size()];
+        int remaining = guests;
+        for (int i = 0; i < chosen.size(); i++) {
+            seated[i] = Math.min(sizes[chosen.get(i)], remaining);
+            remaining -= seated[i];
+        }
+        return seated;
+    }
+}
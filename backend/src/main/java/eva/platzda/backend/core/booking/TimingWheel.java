@@ -0,0 +1,124 @@
+package eva.platzda.backend.core.booking;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Hashed timing wheel for many short-lived timeouts.
+ *
+ * Time is divided into ticks; a timeout is put into the bucket of its deadline tick modulo the
+ * wheel size. Scheduling and cancelling are constant time and advancing the wheel only visits
+ * the buckets of the elapsed ticks, so the cost does not grow with the number of pending timeouts
+ * that are not due yet. Deadlines are rounded up to the next tick.
+ *
+ * @param <T> Payload handed back when a timeout expires
+ */
+public class TimingWheel<T> {
+
+    /**
+     * Handle of a scheduled timeout.
+     */
+    public final class Timeout {
+
+        private final T payload;
+        private final long deadlineTick;
+
+        private Timeout(T payload, long deadlineTick) {
+            this.payload = payload;
+            this.deadlineTick = deadlineTick;
+        }
+
+        public T getPayload() {
+            return payload;
+        }
+    }
+
+    private final long tickMillis;
+    private final int mask;
+    private final Set<Timeout>[] buckets;
+    private final long startMillis;
+
+    private long currentTick;
+    private int size;
+
+    /**
+     * @param tickMillis Length of one tick
+     * @param wheelSize Number of buckets, rounded up to a power of two
+     * @param startMillis Time of tick 0
+     */
+    @SuppressWarnings("unchecked")
+    public TimingWheel(long tickMillis, int wheelSize, long startMillis) {
+        if (tickMillis <= 0 || wheelSize <= 0) throw new IllegalArgumentException("Tick and wheel size must be positive");
+
+        int n = Integer.highestOneBit(Math.max(1, wheelSize - 1)) << 1;
+        this.tickMillis = tickMillis;
+        this.mask = n - 1;
+        this.buckets = new Set[n];
+        for (int i = 0; i < n; i++) {
+            buckets[i] = new LinkedHashSet<>();
+        }
+        this.startMillis = startMillis;
+    }
+
+    /**
+     * Schedules a payload to expire at the given time.
+     *
+     * @param payload Payload to return on expiry
+     * @param deadlineMillis Time of expiry
+     * @return Handle to cancel the timeout
+     */
+    public synchronized Timeout schedule(T payload, long deadlineMillis) {
+        long tick = Math.max(currentTick + 1, Math.ceilDiv(deadlineMillis - startMillis, tickMillis));
+        Timeout timeout = new Timeout(payload, tick);
+        buckets[(int) (tick & mask)].add(timeout);
+        size++;
+        return timeout;
+    }
+
+    /**
+     * Cancels a timeout that has not expired yet.
+     *
+     * @param timeout Handle returned by schedule
+     * @return true if the timeout was pending
+     */
+    public synchronized boolean cancel(Timeout timeout) {
+        boolean removed = buckets[(int) (timeout.deadlineTick & mask)].remove(timeout);
+        if (removed) size--;
+        return removed;
+    }
+
+    /**
+     * Advances the wheel to the given time and removes every timeout that is due.
+     *
+     * @param nowMillis Current time
+     * @return Payloads of the expired timeouts
+     */
+    public synchronized List<T> advance(long nowMillis) {
+        long target = Math.floorDiv(nowMillis - startMillis, tickMillis);
+        List<T> expired = new ArrayList<>();
+
+        //a full turn visits every bucket, so later ticks cannot hold anything new
+        long last = Math.min(target, currentTick + buckets.length);
+        while (currentTick < last) {
+            currentTick++;
+            Iterator<Timeout> it = buckets[(int) (currentTick & mask)].iterator();
+            while (it.hasNext()) {
+                Timeout timeout = it.next();
+                if (timeout.deadlineTick <= target) {
+                    it.remove();
+                    size--;
+                    expired.add(timeout.payload);
+                }
+            }
+        }
+        currentTick = Math.max(currentTick, target);
+        return expired;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+}
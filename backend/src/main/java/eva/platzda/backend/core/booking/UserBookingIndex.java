@@ -0,0 +1,160 @@
+package eva.platzda.backend.core.booking;
+
+import eva.platzda.backend.core.availability.CapacitySummaries;
+import eva.platzda.backend.core.availability.CapacitySummary;
+import eva.platzda.backend.core.availability.TransactionHooks;
+import eva.platzda.backend.core.repositories.ReservationRepository;
+import eva.platzda.backend.core.repositories.projections.UserBookingView;
+import eva.platzda.backend.error_handling.TooManyBookingsException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory index of the bookings every user holds per day, used to enforce the daily booking limit.
+ *
+ * A booking is reserved in the index inside the transaction that creates it; the reservation is
+ * atomic per (user, day), so two concurrent requests of the same user cannot both pass the limit,
+ * and it is undone if the transaction rolls back. The limit is taken from the restaurant that is
+ * booked, falling back to {@code platzda.booking.max-per-user-day}. The index is rebuilt from the
+ * reservations at startup and covers today and later.
+ */
+@Component
+public class UserBookingIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserBookingIndex.class);
+
+    private record UserDay(Long userId, LocalDate day) {
+    }
+
+    private record Booking(Long restaurantId, LocalDateTime start) {
+    }
+
+    private final ReservationRepository reservationRepository;
+    private final CapacitySummaries capacitySummaries;
+    private final int defaultLimit;
+
+    private final Map<UserDay, Set<Booking>> bookings = new ConcurrentHashMap<>();
+
+    private final AtomicLong reserved = new AtomicLong();
+    private final AtomicLong refused = new AtomicLong();
+
+    @Autowired
+    public UserBookingIndex(ReservationRepository reservationRepository,
+                            CapacitySummaries capacitySummaries,
+                            @Value("${platzda.booking.max-per-user-day:1}") int defaultLimit) {
+        this.reservationRepository = reservationRepository;
+        this.capacitySummaries = capacitySummaries;
+        this.defaultLimit = defaultLimit;
+    }
+
+    /**
+     * Reserves a booking for a user if the daily limit of the restaurant allows it.
+     *
+     * Inside a transaction the reservation is undone if the transaction rolls back.
+     *
+     * @param userId ID of the user
+     * @param restaurantId ID of the restaurant
+     * @param start Start time of the booking
+     * @throws TooManyBookingsException if the user has reached the limit on that day or already booked this time
+     */
+    public void reserve(Long userId, Long restaurantId, LocalDateTime start) {
+        UserDay key = new UserDay(userId, start.toLocalDate());
+        Booking booking = new Booking(restaurantId, start);
+        int limit = limitFor(restaurantId);
+
+        bookings.compute(key, (k, current) -> {
+            Set<Booking> set = current == null ? new HashSet<>() : current;
+            if (set.contains(booking) || set.size() >= limit) {
+                refused.incrementAndGet();
+                throw new TooManyBookingsException(limit == 1
+                        ? "User already has a reservation on this day"
+                        : "User already has " + set.size() + " of at most " + limit + " reservations on this day");
+            }
+            set.add(booking);
+            return set;
+        });
+        reserved.incrementAndGet();
+
+        TransactionHooks.afterRollback(() -> remove(userId, restaurantId, start));
+    }
+
+    /**
+     * Removes a booking of a user.
+     *
+     * @param userId ID of the user
+     * @param restaurantId ID of the restaurant
+     * @param start Start time of the booking
+     */
+    public void remove(Long userId, Long restaurantId, LocalDateTime start) {
+        bookings.computeIfPresent(new UserDay(userId, start.toLocalDate()), (k, set) -> {
+            set.remove(new Booking(restaurantId, start));
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    /**
+     * Removes a booking once the current transaction commits if none of its reservations are left.
+     *
+     * @param userId ID of the user
+     * @param restaurantId ID of the restaurant
+     * @param start Start time of the booking
+     */
+    public void removeIfCancelled(Long userId, Long restaurantId, LocalDateTime start) {
+        TransactionHooks.afterCommit(() -> {
+            if (!reservationRepository.existsBooking(userId, restaurantId, start)) remove(userId, restaurantId, start);
+        });
+    }
+
+    /**
+     * Drops every booking once the current transaction commits.
+     */
+    public void clear() {
+        TransactionHooks.afterCommit(bookings::clear);
+    }
+
+    /**
+     * Rebuilds the index from the reservations of today and later.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        Map<UserDay, Set<Booking>> loaded = new ConcurrentHashMap<>();
+        for (UserBookingView b : reservationRepository.findUserBookingsFrom(LocalDate.now().atStartOfDay())) {
+            loaded.computeIfAbsent(new UserDay(b.userId(), b.startTime().toLocalDate()), k -> new HashSet<>())
+                    .add(new Booking(b.restaurantId(), b.startTime()));
+        }
+        bookings.clear();
+        bookings.putAll(loaded);
+        logger.info("User booking index rebuilt with {} user days", loaded.size());
+    }
+
+    /**
+     * Returns the index statistics.
+     *
+     * @return Size, reserved and refused bookings as String
+     */
+    public String getStats() {
+        return "User days: " + bookings.size() + "\n"
+                + "Default limit: " + defaultLimit + "\n"
+                + "Reserved: " + reserved.get() + "\n"
+                + "Refused: " + refused.get();
+    }
+
+    private int limitFor(Long restaurantId) {
+        CapacitySummary summary = capacitySummaries.get(restaurantId);
+        if (summary == null || summary.maxBookingsPerUserDay() == null) return defaultLimit;
+        return summary.maxBookingsPerUserDay();
+    }
+}
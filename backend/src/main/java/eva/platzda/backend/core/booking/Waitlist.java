@@ -0,0 +1,172 @@
+package eva.platzda.backend.core.booking;
+
+import eva.platzda.backend.core.dtos.WaitlistEntry;
+import eva.platzda.backend.error_handling.BadRequestBodyException;
+import eva.platzda.backend.error_handling.NotFoundException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Parties waiting for a table, kept in one priority queue per restaurant and start time.
+ *
+ * Entries are served first come, first served. When a cancellation frees timeslots, the
+ * {@link eva.platzda.backend.core.services.ReservationService} asks for the queues whose
+ * window overlaps the freed range and seats waiting parties in the same transaction.
+ * Entries whose start time has passed are dropped periodically. Waiting parties are seated
+ * under row locks, which cannot see claims the {@link LockFreeBookingEngine} has not written
+ * yet, so the waitlist is not offered in lock-free mode.
+ */
+@Component
+public class Waitlist {
+
+    private static final Comparator<WaitlistEntry> PRIORITY =
+            Comparator.comparing(WaitlistEntry::createdAt).thenComparing(WaitlistEntry::id);
+
+    private final int maxPerStart;
+    private final LockFreeBookingEngine lockFreeBookingEngine;
+
+    //restaurant -> start -> waiting parties
+    private final Map<Long, NavigableMap<LocalDateTime, PriorityQueue<WaitlistEntry>>> queues = new HashMap<>();
+    private final Map<Long, WaitlistEntry> entries = new HashMap<>();
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong joined = new AtomicLong();
+    private final AtomicLong assigned = new AtomicLong();
+    private final AtomicLong expired = new AtomicLong();
+
+    public Waitlist(@Value("${platzda.waitlist.max-per-start:100}") int maxPerStart,
+                    LockFreeBookingEngine lockFreeBookingEngine) {
+        this.maxPerStart = maxPerStart;
+        this.lockFreeBookingEngine = lockFreeBookingEngine;
+    }
+
+    /**
+     * Adds a party to the queue of a restaurant and start time.
+     *
+     * @param restaurantId ID of the restaurant
+     * @param userId ID of the waiting user
+     * @param start Requested start time
+     * @param guests Number of guests
+     * @return The new entry
+     * @throws BadRequestBodyException if the user is already waiting for this start, the queue is full or lock-free booking is enabled
+     */
+    public synchronized WaitlistEntry add(Long restaurantId, Long userId, LocalDateTime start, int guests) {
+        if (lockFreeBookingEngine.isEnabled()) {
+            //a seated party could take tables whose lock-free claims are still queued, and the flush would drop those bookings
+            throw new BadRequestBodyException("The waitlist is not available with lock-free booking");
+        }
+        PriorityQueue<WaitlistEntry> queue = queues.computeIfAbsent(restaurantId, id -> new TreeMap<>())
+                .computeIfAbsent(start, s -> new PriorityQueue<>(PRIORITY));
+
+        if (queue.stream().anyMatch(e -> e.userId().equals(userId))) {
+            throw new BadRequestBodyException("User is already on the waitlist for this time");
+        }
+        if (queue.size() >= maxPerStart) {
+            throw new BadRequestBodyException("Waitlist for this time is full");
+        }
+
+        WaitlistEntry entry = new WaitlistEntry(sequence.incrementAndGet(), restaurantId, userId, start, guests, LocalDateTime.now());
+        queue.add(entry);
+        entries.put(entry.id(), entry);
+        joined.incrementAndGet();
+        return entry;
+    }
+
+    /**
+     * Removes an entry, e.g. because the party left the waitlist or was seated.
+     *
+     * @param entryId ID of the entry
+     * @return The removed entry, null if it no longer exists
+     */
+    public synchronized WaitlistEntry remove(Long entryId) {
+        WaitlistEntry entry = entries.remove(entryId);
+        if (entry == null) return null;
+
+        NavigableMap<LocalDateTime, PriorityQueue<WaitlistEntry>> byStart = queues.get(entry.restaurantId());
+        PriorityQueue<WaitlistEntry> queue = byStart.get(entry.start());
+        queue.remove(entry);
+        if (queue.isEmpty()) byStart.remove(entry.start());
+        if (byStart.isEmpty()) queues.remove(entry.restaurantId());
+        return entry;
+    }
+
+    /**
+     * Removes an entry that has been seated.
+     *
+     * @param entryId ID of the entry
+     */
+    public void assigned(Long entryId) {
+        if (remove(entryId) != null) assigned.incrementAndGet();
+    }
+
+    /**
+     * Returns an entry by its ID.
+     *
+     * @param entryId ID of the entry
+     * @return The entry
+     * @throws NotFoundException if the entry does not exist
+     */
+    public synchronized WaitlistEntry get(Long entryId) {
+        WaitlistEntry entry = entries.get(entryId);
+        if (entry == null) throw new NotFoundException("Waitlist entry " + entryId + " not found");
+        return entry;
+    }
+
+    /**
+     * Returns the waiting parties of a restaurant whose start lies within a range.
+     *
+     * @param restaurantId ID of the restaurant
+     * @param from Earliest start (inclusive)
+     * @param to Latest start (exclusive)
+     * @return Entries in the order they should be served, by start time and then priority
+     */
+    public synchronized List<WaitlistEntry> waiting(Long restaurantId, LocalDateTime from, LocalDateTime to) {
+        NavigableMap<LocalDateTime, PriorityQueue<WaitlistEntry>> byStart = queues.get(restaurantId);
+        if (byStart == null) return List.of();
+
+        List<WaitlistEntry> result = new ArrayList<>();
+        for (PriorityQueue<WaitlistEntry> queue : byStart.subMap(from, true, to, false).values()) {
+            queue.stream().sorted(PRIORITY).forEach(result::add);
+        }
+        return result;
+    }
+
+    /**
+     * Drops all entries whose start time has passed.
+     */
+    @Scheduled(fixedDelayString = "${platzda.waitlist.cleanup-interval-ms:60000}")
+    public synchronized void dropPast() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> past = entries.values().stream().filter(e -> e.start().isBefore(now)).map(WaitlistEntry::id).toList();
+        past.forEach(this::remove);
+        expired.addAndGet(past.size());
+    }
+
+    /**
+     * Returns the waitlist statistics.
+     *
+     * @return Waiting, joined, assigned and expired entries as String
+     */
+    public String getStats() {
+        int size;
+        synchronized (this) {
+            size = entries.size();
+        }
+        return "Waiting: " + size + "\n"
+                + "Joined: " + joined.get() + "\n"
+                + "Assigned: " + assigned.get() + "\n"
+                + "Expired: " + expired.get();
+    }
+}
@@ -0,0 +1,223 @@
+package eva.platzda.backend.core.booking;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Durable queue of claimed bookings waiting to be persisted.
+ *
+ * Every claim is appended to a journal file and synced to disk before the booking is
+ * confirmed. Persisted claims are acknowledged by appending a synced ack record; the
+ * journal is truncated once the queue is empty and otherwise compacted after a number of
+ * acks, by writing and syncing a new file and moving it over the old one. Replaying claims
+ * and acks in order yields the bookings that still have to be written.
+ *
+ * The journal only means something as long as the database outlives the process. With an
+ * in-memory database the rows it refers to are gone after a restart, so it is discarded.
+ */
+@Component
+public class WriteBehindQueue {
+
+    private static final String ACK = "ack;";
+
+    private final Path journal;
+    private final boolean databaseOutlivesProcess;
+    private final int compactAfter;
+    private int ackedSinceCompaction;
+
+    private final ConcurrentSkipListMap<Long, BookingClaim> pending = new ConcurrentSkipListMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    public WriteBehindQueue(@Value("${platzda.booking.journal:booking-journal.log}") String journal,
+                            @Value("${platzda.booking.journal-compact-after:10000}") int compactAfter,
+                            @Value("${spring.datasource.url:}") String datasourceUrl) {
+        this.journal = Path.of(journal);
+        this.compactAfter = compactAfter;
+        this.databaseOutlivesProcess = !datasourceUrl.startsWith("jdbc:h2:mem:");
+    }
+
+    /**
+     * Durably appends claims to the queue.
+     *
+     * @param claims Claims without sequence
+     * @return The queued claims with their journal sequence
+     * @throws UncheckedIOException if the journal cannot be written, nothing is queued in that case
+     */
+    public synchronized List<BookingClaim> append(List<BookingClaim> claims) {
+        List<BookingClaim> queued = new ArrayList<>(claims.size());
+        StringBuilder lines = new StringBuilder();
+        for (BookingClaim c : claims) {
+            BookingClaim q = c.withSequence(sequence.incrementAndGet());
+            queued.add(q);
+            lines.append(q.toLine()).append('\n');
+        }
+
+        try {
+            Files.writeString(journal, lines, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.WRITE, StandardOpenOption.DSYNC);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write booking journal", e);
+        }
+
+        queued.forEach(q -> pending.put(q.sequence(), q));
+        return queued;
+    }
+
+    /**
+     * Returns the oldest claims without removing them.
+     *
+     * @param max Maximum number of claims
+     * @return Claims in journal order
+     */
+    public List<BookingClaim> peek(int max) {
+        return pending.values().stream().limit(max).toList();
+    }
+
+    /**
+     * Removes persisted claims from the queue and the journal.
+     *
+     * @param done Persisted (or rejected) claims
+     */
+    public synchronized void acknowledge(Collection<BookingClaim> done) {
+        if (done.isEmpty()) return;
+        done.forEach(c -> pending.remove(c.sequence()));
+
+        try {
+            if (pending.isEmpty()) {
+                truncate();
+                return;
+            }
+            StringBuilder acks = new StringBuilder();
+            done.forEach(c -> acks.append(ACK).append(c.sequence()).append('\n'));
+            Files.writeString(journal, acks, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.WRITE, StandardOpenOption.DSYNC);
+            ackedSinceCompaction += done.size();
+            if (ackedSinceCompaction >= compactAfter) compact();
+        } catch (IOException e) {
+            //without the ack the persisted claims are replayed after a restart and rejected,
+            //because their timeslots are already taken by the persisted reservations
+            throw new UncheckedIOException("Could not acknowledge booking journal", e);
+        }
+    }
+
+    private void truncate() throws IOException {
+        try (FileChannel channel = FileChannel.open(journal, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            channel.truncate(0);
+            channel.force(true);
+        }
+        ackedSinceCompaction = 0;
+    }
+
+    private void compact() throws IOException {
+        Path tmp = journal.resolveSibling(journal.getFileName() + ".tmp");
+        byte[] lines = pending.values().stream().map(c -> c.toLine() + "\n").collect(Collectors.joining())
+                .getBytes(StandardCharsets.UTF_8);
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap(lines);
+            while (buffer.hasRemaining()) channel.write(buffer);
+            channel.force(true);
+        }
+        Files.move(tmp, journal, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        syncDirectory();
+        ackedSinceCompaction = 0;
+    }
+
+    private void syncDirectory() {
+        Path dir = journal.toAbsolutePath().getParent();
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            //not every platform can sync a directory; the rename itself is atomic
+        }
+    }
+
+    /**
+     * Returns the queued claims of a restaurant day.
+     *
+     * @param restaurantId ID of the restaurant
+     * @param day Date of interest
+     * @return Claims that are not persisted yet
+     */
+    public List<BookingClaim> pendingFor(Long restaurantId, LocalDate day) {
+        return pending.values().stream()
+                .filter(c -> c.restaurantId().equals(restaurantId) && c.start().toLocalDate().equals(day))
+                .toList();
+    }
+
+    /**
+     * Returns all queued claims.
+     *
+     * @return Claims that are not persisted yet
+     */
+    public List<BookingClaim> pendingAll() {
+        return List.copyOf(pending.values());
+    }
+
+    /**
+     * Checks whether a user has a booking on a day that is not persisted yet.
+     *
+     * @param userId ID of the user
+     * @param day Date to check
+     * @return true if such a booking is queued
+     */
+    public boolean hasPending(Long userId, LocalDate day) {
+        return pending.values().stream().anyMatch(c -> c.userId().equals(userId) && c.start().toLocalDate().equals(day));
+    }
+
+    public int size() {
+        return pending.size();
+    }
+
+    /**
+     * Loads the claims left in the journal by a previous run into the queue.
+     *
+     * @return Number of recovered claims
+     */
+    public synchronized int recover() {
+        if (!Files.exists(journal)) return 0;
+        if (!databaseOutlivesProcess) {
+            try {
+                truncate();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not reset booking journal", e);
+            }
+            return 0;
+        }
+
+        List<String> lines;
+        try {
+            lines = Files.readAllLines(journal, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read booking journal", e);
+        }
+
+        for (String line : lines) {
+            if (line.isBlank()) continue;
+            if (line.startsWith(ACK)) {
+                pending.remove(Long.parseLong(line.substring(ACK.length())));
+                continue;
+            }
+            BookingClaim c = BookingClaim.fromLine(line);
+            pending.put(c.sequence(), c);
+            sequence.accumulateAndGet(c.sequence(), Math::max);
+        }
+        return pending.size();
+    }
+}
@@ -1,27 +1,53 @@
 package eva.platzda.backend.core.controllers;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import eva.platzda.backend.core.booking.BookingClaim;
+import eva.platzda.backend.core.booking.BookingLanes;
+import eva.platzda.backend.core.booking.IdempotencyStore;
+import eva.platzda.backend.core.booking.LockFreeBookingEngine;
+import eva.platzda.backend.core.booking.ReservationHolds;
+import eva.platzda.backend.core.booking.UserBookingIndex;
+import eva.platzda.backend.core.booking.Waitlist;
+import eva.platzda.backend.core.dtos.BatchReservationResult;
+import eva.platzda.backend.core.dtos.DayAvailability;
+import eva.platzda.backend.core.dtos.HoldDto;
 import eva.platzda.backend.core.dtos.ReservationDto;
+import eva.platzda.backend.core.dtos.ReservationRequest;
 import eva.platzda.backend.core.dtos.TimeWindow;
+import eva.platzda.backend.core.dtos.WaitlistEntry;
 import eva.platzda.backend.core.models.OpeningHours;
 import eva.platzda.backend.core.models.Reservation;
 import eva.platzda.backend.core.models.Restaurant;
+import eva.platzda.backend.core.repositories.projections.ReservationView;
+import eva.platzda.backend.core.services.AvailabilitySearchService;
 import eva.platzda.backend.core.services.HoursService;
 import eva.platzda.backend.core.services.ReservationService;
 import eva.platzda.backend.core.services.RestaurantService;
 import eva.platzda.backend.core.services.UserService;
+import eva.platzda.backend.error_handling.BadRequestBodyException;
+import eva.platzda.backend.error_handling.NotEnoughCapacityException;
 import eva.platzda.backend.error_handling.NotFoundException;
+import eva.platzda.backend.error_handling.ServiceBusyException;
 import eva.platzda.backend.error_handling.TooManyBookingsException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * REST endpoints for managing reservations.
@@ -35,16 +61,40 @@ public class ReservationController {
     private RestaurantService restaurantService;
     private HoursService hoursService;
     private UserService userService;
+    private AvailabilitySearchService availabilitySearchService;
+    private LockFreeBookingEngine lockFreeBookingEngine;
+    private BookingLanes bookingLanes;
+    private IdempotencyStore idempotencyStore;
+    private UserBookingIndex userBookingIndex;
+    private Waitlist waitlist;
+    private ReservationHolds reservationHolds;
+    private ObjectMapper objectMapper;
 
     @Autowired
     public ReservationController(ReservationService reservationService,
                                  RestaurantService restaurantService,
                                  HoursService hoursService,
-                                 UserService userService) {
+                                 UserService userService,
+                                 AvailabilitySearchService availabilitySearchService,
+                                 LockFreeBookingEngine lockFreeBookingEngine,
+                                 BookingLanes bookingLanes,
+                                 IdempotencyStore idempotencyStore,
+                                 UserBookingIndex userBookingIndex,
+                                 Waitlist waitlist,
+                                 ReservationHolds reservationHolds,
+                                 ObjectMapper objectMapper) {
         this.reservationService = reservationService;
         this.restaurantService = restaurantService;
         this.hoursService = hoursService;
         this.userService = userService;
+        this.availabilitySearchService = availabilitySearchService;
+        this.lockFreeBookingEngine = lockFreeBookingEngine;
+        this.bookingLanes = bookingLanes;
+        this.idempotencyStore = idempotencyStore;
+        this.userBookingIndex = userBookingIndex;
+        this.waitlist = waitlist;
+        this.reservationHolds = reservationHolds;
+        this.objectMapper = objectMapper;
     }
 
     /**
@@ -54,22 +104,205 @@ public class ReservationController {
      * @param userId ID of the user
      * @param start Start time of the reservation
      * @param guests Number of guests
+     * @param alternatives Number of alternatives to suggest per direction if the restaurant is full, 0 for none
+     * @param siblings Whether restaurants with the same tags are suggested as well
+     * @param idempotencyKey Optional client-chosen key; a retry with the same key returns the original result
      * @return List of created reservations as DTOs
      * @throws TooManyBookingsException if the user already has a reservation on the same day
+     * @throws NotEnoughCapacityException if the party cannot be seated, carrying the nearest feasible alternatives
+     * @throws ServiceBusyException if too many bookings for the restaurant are waiting
      */
     @PostMapping
     public ResponseEntity<List<ReservationDto>> createReservation(@RequestParam Long restaurantId,
                                                @RequestParam Long userId,
                                                @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
-                                               @RequestParam int guests) {
+                                               @RequestParam int guests,
+                                               @RequestParam(defaultValue = "3") int alternatives,
+                                               @RequestParam(defaultValue = "false") boolean siblings,
+                                               @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
 
-        if(reservationService.checkSingleReservationDay(userId, start.toLocalDate())) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return ResponseEntity.ok(createReservationDtos(restaurantId, userId, start, guests, alternatives, siblings));
+        }
+
+        String fingerprint = restaurantId + ";" + userId + ";" + start + ";" + guests;
+        return ResponseEntity.ok(idempotencyStore.execute(idempotencyKey, fingerprint,
+                () -> createReservationDtos(restaurantId, userId, start, guests, alternatives, siblings)));
+    }
+
+    private List<ReservationDto> createReservationDtos(Long restaurantId,
+                                                       Long userId,
+                                                       LocalDateTime start,
+                                                       int guests,
+                                                       int alternatives,
+                                                       boolean siblings) {
+        List<ReservationDto> reservationDtos;
+        try {
+            if (lockFreeBookingEngine.isEnabled()) {
+                reservationDtos = bookLockFree(restaurantId, userId, start, guests).stream().map(ReservationDto::fromObject).toList();
+            } else {
+                //the daily limit per user is enforced inside the booking transaction
+                reservationDtos = bookingLanes.run(restaurantId, () -> reservationService.book(restaurantId, userId, start, guests))
+                        .stream().map(ReservationDto::fromObject).toList();
+            }
+        } catch (NotEnoughCapacityException e) {
+            if (alternatives <= 0) throw e;
+            throw new NotEnoughCapacityException(e.getMessage(),
+                    availabilitySearchService.findAlternatives(restaurantId, start, guests, alternatives, siblings));
+        }
+
+        return reservationDtos;
+    }
+
+    private List<BookingClaim> bookLockFree(Long restaurantId, Long userId, LocalDateTime start, int guests) {
+        if (lockFreeBookingEngine.hasPendingBooking(userId, start.toLocalDate())) {
             throw new TooManyBookingsException("User already has a reservation on this day");
         }
+        //there is no booking transaction, so the entry is taken here and given back on failure
+        userBookingIndex.reserve(userId, restaurantId, start);
+        try {
+            return lockFreeBookingEngine.book(restaurantId, userId, start, guests);
+        } catch (RuntimeException e) {
+            userBookingIndex.remove(userId, restaurantId, start);
+            throw e;
+        }
+    }
+
+    /**
+     * Holds tables for a reservation that is confirmed in a second step, e.g. after checkout.
+     *
+     * The held tables are unavailable to other bookings until the hold is confirmed,
+     * released or expires.
+     *
+     * @param restaurantId ID of the restaurant
+     * @param userId ID of the user
+     * @param start Start time of the reservation
+     * @param guests Number of guests
+     * @param seconds Duration of the hold, the configured default if omitted
+     * @return The hold with its ID, expiry and held reservations
+     * @throws TooManyBookingsException if the user already has a reservation on the same day
+     * @throws NotEnoughCapacityException if the party cannot be seated
+     * @throws BadRequestBodyException if lock-free booking is enabled
+     */
+    @PostMapping("/hold")
+    public ResponseEntity<HoldDto> holdReservation(@RequestParam Long restaurantId,
+                                                   @RequestParam Long userId,
+                                                   @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+                                                   @RequestParam int guests,
+                                                   @RequestParam(required = false) Long seconds) {
+        return ResponseEntity.ok(bookingLanes.run(restaurantId, () -> reservationHolds.hold(restaurantId, userId, start, guests, seconds)));
+    }
 
-        List<ReservationDto> reservationDtos = reservationService.bookSlot(restaurantId, userId, start, guests).stream().map(ReservationDto::fromObject).toList();
+    /**
+     * Confirms a hold, turning it into regular reservations.
+     *
+     * @param holdId ID of the hold
+     * @return The confirmed reservations as DTOs
+     * @throws NotFoundException if the hold does not exist or has expired
+     */
+    @PostMapping("/hold/{holdId}/confirm")
+    public ResponseEntity<List<ReservationDto>> confirmHold(@PathVariable String holdId) {
+        return ResponseEntity.ok(reservationHolds.confirm(holdId));
+    }
 
-        return ResponseEntity.ok(reservationDtos);
+    /**
+     * Releases a hold before it expires.
+     *
+     * @param holdId ID of the hold
+     * @return Confirmation message
+     * @throws NotFoundException if the hold does not exist or has expired
+     */
+    @DeleteMapping("/hold/{holdId}")
+    public ResponseEntity<String> releaseHold(@PathVariable String holdId) {
+        reservationHolds.release(holdId);
+        return ResponseEntity.ok("Hold released");
+    }
+
+    /**
+     * Puts a party on the waitlist of a restaurant and start time.
+     *
+     * When a cancellation frees enough seats, the party is booked automatically and the
+     * subscribers of the restaurant are notified with the entry ID and the new reservations.
+     *
+     * @param restaurantId ID of the restaurant
+     * @param userId ID of the user
+     * @param start Requested start time
+     * @param guests Number of guests
+     * @return The waitlist entry
+     * @throws NotFoundException if the restaurant does not exist
+     * @throws BadRequestBodyException if the user is already waiting for this time, the waitlist is full or lock-free booking is enabled
+     */
+    @PostMapping("/waitlist")
+    public ResponseEntity<WaitlistEntry> joinWaitlist(@RequestParam Long restaurantId,
+                                                      @RequestParam Long userId,
+                                                      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+                                                      @RequestParam int guests) {
+        if(restaurantService.findById(restaurantId) == null) throw new NotFoundException("Restaurant with id " + restaurantId + " not found");
+        if(guests <= 0) throw new BadRequestBodyException("Number of guests must be positive");
+        if(!start.isAfter(LocalDateTime.now())) throw new BadRequestBodyException("Start time must be in the future");
+
+        return ResponseEntity.ok(waitlist.add(restaurantId, userId, start, guests));
+    }
+
+    /**
+     * Removes a party from the waitlist.
+     *
+     * @param entryId ID of the waitlist entry
+     * @return Confirmation message
+     */
+    @DeleteMapping("/waitlist/{entryId}")
+    public ResponseEntity<String> leaveWaitlist(@PathVariable Long entryId) {
+        if(waitlist.remove(entryId) == null) return ResponseEntity.noContent().build();
+        return ResponseEntity.ok("Waitlist entry removed");
+    }
+
+    /**
+     * Creates many reservations at once, e.g. when importing partner bookings.
+     *
+     * Entries are grouped by restaurant; every group is booked in its own transaction with a
+     * single lock acquisition. Entries that cannot be booked do not affect the others.
+     *
+     * @param requests Reservations to create
+     * @return One result per entry in request order, with the created reservation IDs or the reason for failure
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<List<BatchReservationResult>> createReservations(@RequestBody List<ReservationRequest> requests) {
+        List<BatchReservationResult> results = new ArrayList<>();
+        Map<Long, Map<Integer, ReservationRequest>> groups = new LinkedHashMap<>();
+
+        for (int i = 0; i < requests.size(); i++) {
+            ReservationRequest r = requests.get(i);
+            if (r == null || r.restaurantId() == null || r.userId() == null || r.start() == null || r.guests() <= 0) {
+                results.add(BatchReservationResult.failed(i, "restaurantId, userId, start and a positive number of guests are required"));
+                continue;
+            }
+            groups.computeIfAbsent(r.restaurantId(), id -> new LinkedHashMap<>()).put(i, r);
+        }
+
+        groups.forEach((restaurantId, entries) -> {
+            try {
+                if (lockFreeBookingEngine.isEnabled()) {
+                    entries.forEach((i, r) -> results.add(bookLockFree(i, r)));
+                } else {
+                    results.addAll(bookingLanes.run(restaurantId, () -> reservationService.bookBatch(restaurantId, entries)));
+                }
+            } catch (RuntimeException e) {
+                entries.keySet().forEach(i -> results.add(BatchReservationResult.failed(i, e.getMessage())));
+            }
+        });
+
+        results.sort(Comparator.comparingInt(BatchReservationResult::index));
+        return ResponseEntity.ok(results);
+    }
+
+    private BatchReservationResult bookLockFree(int index, ReservationRequest r) {
+        try {
+            bookLockFree(r.restaurantId(), r.userId(), r.start(), r.guests());
+            //IDs are assigned once the write-behind queue has been flushed
+            return BatchReservationResult.booked(index, List.of());
+        } catch (RuntimeException e) {
+            return BatchReservationResult.failed(index, e.getMessage());
+        }
     }
 
     /**
@@ -87,7 +320,7 @@ public class ReservationController {
         Restaurant restaurant = restaurantService.findById(restaurantId);
         if(restaurant == null) throw new NotFoundException("Restaurant with id " + restaurantId + " not found");
 
-        List<Reservation> reservation = reservationService.findReservationsForRestaurant(restaurant, day);
+        List<ReservationView> reservation = reservationService.findReservationsForRestaurant(restaurant, day);
 
         List<ReservationDto> dtos = reservation.stream()
                 .map(ReservationDto::fromObject)
@@ -149,6 +382,44 @@ public class ReservationController {
         return ResponseEntity.ok(reservationService.findFreeSlots(restaurantId, day, open, close, guests));
     }
 
+    /**
+     * Returns free reservation slots of a restaurant for every day of a date range.
+     *
+     * The response is a JSON array that is written and flushed day by day instead of
+     * being assembled as a whole.
+     *
+     * @param restaurantId ID of the restaurant
+     * @param from First day (inclusive)
+     * @param to Last day (inclusive), at most the pregenerated weeks after from
+     * @param guests Number of guests
+     * @return Streamed list of available time windows per day
+     */
+    @GetMapping("/restaurant/{restaurantId}/free-slots/range")
+    public ResponseEntity<StreamingResponseBody> getFreeSlotsRange(@PathVariable Long restaurantId,
+                                                                   @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                                   @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                                   @RequestParam int guests) {
+
+        Restaurant restaurant = restaurantService.findById(restaurantId);
+        if(restaurant == null) throw new NotFoundException("Restaurant with id " + restaurantId + " not found");
+
+        Stream<DayAvailability> days = reservationService.findFreeSlotsRange(restaurant, from, to, guests);
+
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                generator.writeStartArray();
+                Iterator<DayAvailability> it = days.iterator();
+                while (it.hasNext()) {
+                    generator.writeObject(it.next());
+                    generator.flush();
+                }
+                generator.writeEndArray();
+            }
+        };
+
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
     /**
      * Deletes a reservation by its ID.
      *
@@ -1,17 +1,21 @@
 package eva.platzda.backend.core.controllers;
 
+import eva.platzda.backend.core.dtos.RestaurantAvailability;
 import eva.platzda.backend.core.dtos.RestaurantDto;
 import eva.platzda.backend.core.dtos.StringRequest;
 import eva.platzda.backend.core.models.Restaurant;
 import eva.platzda.backend.core.models.User;
+import eva.platzda.backend.core.services.AvailabilitySearchService;
 import eva.platzda.backend.core.services.RestaurantService;
 import eva.platzda.backend.core.services.UserService;
 import eva.platzda.backend.error_handling.NotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -24,11 +28,13 @@ public class RestaurantController {
 
     private UserService userService;
     private RestaurantService restaurantService;
+    private AvailabilitySearchService availabilitySearchService;
 
     @Autowired
-    public RestaurantController(UserService userService, RestaurantService restaurantService) {
+    public RestaurantController(UserService userService, RestaurantService restaurantService, AvailabilitySearchService availabilitySearchService) {
         this.userService = userService;
         this.restaurantService = restaurantService;
+        this.availabilitySearchService = availabilitySearchService;
     }
 
     /**
@@ -76,6 +82,24 @@ public class RestaurantController {
     }
 
 
+    /**
+     *
+     * Returns all restaurants (optionally with all given tags) that can seat a party at a given time.
+     *
+     * @param start Start of the reservation
+     * @param guests Number of guests
+     * @param tags Comma separated tags, optional
+     * @return Matching restaurants with their free seats
+     */
+    @GetMapping("/available")
+    public ResponseEntity<List<RestaurantAvailability>> getAvailableRestaurants(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam int guests,
+            @RequestParam(required = false) String tags) {
+        return ResponseEntity.ok(availabilitySearchService.findRestaurantsWithCapacity(tags, start, guests));
+    }
+
+
     /**
      *
      * Creates a new Restaurant for the given owner.
@@ -142,6 +166,8 @@ public class RestaurantController {
         if(restaurant.getAddress() == null) restaurant.setAddress(oldRestaurant.getAddress());
         if(restaurant.getTimeSlotDuration() == null) restaurant.setTimeSlotDuration(oldRestaurant.getTimeSlotDuration());
         if(restaurant.getTags() == null) restaurant.setTags(oldRestaurant.getTags());
+        if(restaurant.getBookingConcurrency() == null) restaurant.setBookingConcurrency(oldRestaurant.getBookingConcurrency());
+        if(restaurant.getMaxBookingsPerUserDay() == null) restaurant.setMaxBookingsPerUserDay(oldRestaurant.getMaxBookingsPerUserDay());
         restaurant.setOwner(oldRestaurant.getOwner());
 
         Restaurant r = restaurantService.updateRestaurant(restaurant);
@@ -1,7 +1,7 @@
 package eva.platzda.backend.core.controllers;
 
 import eva.platzda.backend.core.dtos.TimeslotDto;
-import eva.platzda.backend.core.models.Timeslot;
+import eva.platzda.backend.core.repositories.projections.TimeslotView;
 import eva.platzda.backend.core.services.TableService;
 import eva.platzda.backend.core.services.TimeslotService;
 import eva.platzda.backend.core.services.UserService;
@@ -37,7 +37,7 @@ public class TimeslotController {
      */
     @GetMapping
     public ResponseEntity<List<TimeslotDto>> getAllTimeslots() {
-        List<Timeslot> timeslots = timeslotService.findAllTimeslots();
+        List<TimeslotView> timeslots = timeslotService.findAllTimeslotViews();
         List<TimeslotDto> timeslotDtos = timeslots.stream()
                 .map(TimeslotDto::fromObject)
                 .collect(Collectors.toList());
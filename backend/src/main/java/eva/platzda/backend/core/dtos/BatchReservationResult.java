@@ -0,0 +1,22 @@
+package eva.platzda.backend.core.dtos;
+
+import java.util.List;
+
+/**
+ * Outcome of one entry of a batch reservation request.
+ *
+ * @param index Position of the entry in the request
+ * @param booked Whether the reservation was booked
+ * @param reservationIds IDs of the created reservations, one per table, empty if not booked
+ * @param reason Why the entry could not be booked, null if booked
+ */
+public record BatchReservationResult(int index, boolean booked, List<Long> reservationIds, String reason) {
+
+    public static BatchReservationResult booked(int index, List<Long> reservationIds) {
+        return new BatchReservationResult(index, true, reservationIds, null);
+    }
+
+    public static BatchReservationResult failed(int index, String reason) {
+        return new BatchReservationResult(index, false, List.of(), reason);
+    }
+}
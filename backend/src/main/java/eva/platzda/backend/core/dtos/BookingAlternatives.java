@@ -0,0 +1,13 @@
+package eva.platzda.backend.core.dtos;
+
+import java.util.List;
+
+/**
+ * Feasible alternatives to a reservation that could not be booked for lack of capacity.
+ *
+ * @param earlier Nearest earlier windows on the same day, ordered by start time
+ * @param later Nearest later windows on the same day, ordered by start time
+ * @param elsewhere Restaurants with the same tags that can seat the party at the requested time
+ */
+public record BookingAlternatives(List<TimeWindow> earlier, List<TimeWindow> later, List<RestaurantAvailability> elsewhere) {
+}
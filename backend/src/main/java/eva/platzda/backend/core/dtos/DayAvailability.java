@@ -0,0 +1,15 @@
+package eva.platzda.backend.core.dtos;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Available time windows of a restaurant on a single day.
+ *
+ * Used as element of the streamed multi-day availability response.
+ *
+ * @param day Date of the windows
+ * @param windows Available time windows on that day
+ */
+public record DayAvailability(LocalDate day, List<TimeWindow> windows) {
+}
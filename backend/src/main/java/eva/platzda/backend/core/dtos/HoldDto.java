@@ -0,0 +1,14 @@
+package eva.platzda.backend.core.dtos;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Tables held for a reservation that still has to be confirmed.
+ *
+ * @param holdId ID to confirm or release the hold with
+ * @param expiresAt Time at which the tables are released unless the hold is confirmed
+ * @param reservations Held reservations, one per table
+ */
+public record HoldDto(String holdId, LocalDateTime expiresAt, List<ReservationDto> reservations) {
+}
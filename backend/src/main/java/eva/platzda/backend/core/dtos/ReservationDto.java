@@ -1,7 +1,9 @@
 package eva.platzda.backend.core.dtos;
 
 
+import eva.platzda.backend.core.booking.BookingClaim;
 import eva.platzda.backend.core.models.Reservation;
+import eva.platzda.backend.core.repositories.projections.ReservationView;
 
 import java.time.LocalDateTime;
 
@@ -16,6 +18,12 @@ public class ReservationDto {
     private LocalDateTime start;
     private LocalDateTime end;
 
+    /**
+     * No Args Constructor
+     */
+    public ReservationDto() {
+    }
+
     /**
      * All Args Constructor
      *
@@ -47,6 +55,35 @@ public class ReservationDto {
                 reservation.getEndTime());
     }
 
+    /**
+     * Converts a ReservationView projection into a ReservationDto without touching any entity.
+     *
+     * @param view Reservation projection
+     * @return ReservationDto with mapped values
+     */
+    public static ReservationDto fromObject(ReservationView view) {
+        return new ReservationDto(view.id(),
+                view.userId(),
+                view.numberOfGuests(),
+                view.startTime(),
+                view.endTime());
+    }
+
+    /**
+     * Converts a booking claimed by the lock-free engine into a ReservationDto.
+     * The ID stays empty until the booking has been persisted.
+     *
+     * @param claim Claimed booking
+     * @return ReservationDto with mapped values
+     */
+    public static ReservationDto fromObject(BookingClaim claim) {
+        return new ReservationDto(null,
+                claim.userId(),
+                claim.guests(),
+                claim.start(),
+                claim.end());
+    }
+
     public Long getId() {
         return id;
     }
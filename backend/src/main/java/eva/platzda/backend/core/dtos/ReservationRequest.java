@@ -0,0 +1,14 @@
+package eva.platzda.backend.core.dtos;
+
+import java.time.LocalDateTime;
+
+/**
+ * One entry of a batch reservation request.
+ *
+ * @param restaurantId ID of the restaurant
+ * @param userId ID of the user
+ * @param start Start time of the reservation
+ * @param guests Number of guests
+ */
+public record ReservationRequest(Long restaurantId, Long userId, LocalDateTime start, int guests) {
+}
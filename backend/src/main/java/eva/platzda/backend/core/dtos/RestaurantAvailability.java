@@ -0,0 +1,14 @@
+package eva.platzda.backend.core.dtos;
+
+import java.util.List;
+
+/**
+ * A restaurant that can seat a requested party at a requested time.
+ *
+ * @param restaurantId ID of the restaurant
+ * @param address Address of the restaurant
+ * @param tags Tags of the restaurant
+ * @param window Matching time window with the number of free seats
+ */
+public record RestaurantAvailability(Long restaurantId, String address, List<String> tags, TimeWindow window) {
+}
@@ -1,6 +1,7 @@
 package eva.platzda.backend.core.dtos;
 
 import eva.platzda.backend.core.models.Timeslot;
+import eva.platzda.backend.core.repositories.projections.TimeslotView;
 
 import java.time.LocalDateTime;
 
@@ -53,6 +54,23 @@ public class TimeslotDto {
         );
     }
 
+    /**
+     * Converts a TimeslotView projection into a TimeslotDto without touching any entity.
+     *
+     * @param view Timeslot projection
+     * @return TimeslotDto with mapped values
+     */
+    public static TimeslotDto fromObject(TimeslotView view){
+        if(view==null) return null;
+
+        return new TimeslotDto(
+                view.id(),
+                view.startTime(),
+                view.endTime(),
+                view.userId(),
+                view.tableId()
+        );
+    }
 
     public Long getId() {
         return id;
@@ -0,0 +1,16 @@
+package eva.platzda.backend.core.dtos;
+
+import java.time.LocalDateTime;
+
+/**
+ * A party waiting for a table at a restaurant and start time.
+ *
+ * @param id ID of the entry
+ * @param restaurantId ID of the restaurant
+ * @param userId ID of the waiting user
+ * @param start Requested start time
+ * @param guests Number of guests
+ * @param createdAt Time the party joined the waitlist, earlier entries are served first
+ */
+public record WaitlistEntry(Long id, Long restaurantId, Long userId, LocalDateTime start, int guests, LocalDateTime createdAt) {
+}
@@ -0,0 +1,11 @@
+package eva.platzda.backend.core.models;
+
+/**
+ * How concurrent bookings of a restaurant are kept from taking the same timeslots.
+ */
+public enum BookingConcurrency {
+    /** Timeslot rows are locked before they are checked and assigned. */
+    PESSIMISTIC,
+    /** Timeslot rows are read without locks; conflicting writes are detected by their version and retried. */
+    OPTIMISTIC
+}
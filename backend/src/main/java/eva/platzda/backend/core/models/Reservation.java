@@ -15,6 +15,9 @@ public class Reservation {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @Version
+    private long version;
+
     @ManyToOne
     @JoinColumn(name = "table_id")
     private RestaurantTable restaurantTable;
@@ -28,6 +31,9 @@ public class Reservation {
     private LocalDateTime endTime;
     private int numberOfGuests;
 
+    //set while the tables are only held, see ReservationHolds
+    private LocalDateTime heldUntil;
+
     public Reservation(){}
 
     public Reservation(RestaurantTable table,
@@ -50,6 +56,10 @@ public class Reservation {
         this.id = id;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
     public RestaurantTable getRestaurantTable() {
         return restaurantTable;
     }
@@ -89,4 +99,12 @@ public class Reservation {
     public void setNumberOfGuests(int numberOfGuests) {
         this.numberOfGuests = numberOfGuests;
     }
+
+    public LocalDateTime getHeldUntil() {
+        return heldUntil;
+    }
+
+    public void setHeldUntil(LocalDateTime heldUntil) {
+        this.heldUntil = heldUntil;
+    }
 }
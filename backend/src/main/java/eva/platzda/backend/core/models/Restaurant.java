@@ -27,6 +27,13 @@ public class Restaurant {
     @Column
     private Integer timeSlotDuration; //Wert * 15 min = gesamte Reservierungszeit
 
+    @Enumerated(EnumType.STRING)
+    @Column
+    private BookingConcurrency bookingConcurrency; //null = platzda.booking.default-concurrency
+
+    @Column
+    private Integer maxBookingsPerUserDay; //null = platzda.booking.max-per-user-day
+
     @OneToMany(mappedBy = "restaurant", orphanRemoval = true)
     private List<UserFlag> flags = new ArrayList<>();
 
@@ -71,6 +78,22 @@ public class Restaurant {
         this.timeSlotDuration = timeSlotDuration;
     }
 
+    public BookingConcurrency getBookingConcurrency() {
+        return bookingConcurrency;
+    }
+
+    public void setBookingConcurrency(BookingConcurrency bookingConcurrency) {
+        this.bookingConcurrency = bookingConcurrency;
+    }
+
+    public Integer getMaxBookingsPerUserDay() {
+        return maxBookingsPerUserDay;
+    }
+
+    public void setMaxBookingsPerUserDay(Integer maxBookingsPerUserDay) {
+        this.maxBookingsPerUserDay = maxBookingsPerUserDay;
+    }
+
     @ElementCollection
     @CollectionTable(
             name = "restaurant_tags",
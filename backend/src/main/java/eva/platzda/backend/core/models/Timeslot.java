@@ -7,13 +7,18 @@ import org.hibernate.annotations.OnDeleteAction;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "timeslot")
+@Table(name = "timeslot", indexes = @Index(name = "idx_timeslot_start", columnList = "startTime"))
 public class Timeslot {
 
+    //pooled sequence ids let Hibernate batch the inserts of timeslot generation
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "timeslot_seq")
+    @SequenceGenerator(name = "timeslot_seq", sequenceName = "timeslot_seq", allocationSize = 500)
     private Long id;
 
+    @Version
+    private long version;
+
     @ManyToOne
     @JoinColumn(name = "table_id")
     @OnDelete(action = OnDeleteAction.CASCADE)
@@ -55,6 +60,10 @@ public class Timeslot {
         this.id = id;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
     public RestaurantTable getTable() {
         return table;
     }
@@ -392,6 +392,31 @@ public class NotificationSocket implements InitializingBean, DisposableBean {
 
     }
 
+    /**
+     *
+     * Notify clients subscribed to a restaurant, e.g. once for a whole batch of reservations.
+     *
+     * @param restaurantId changed restaurant
+     * @param updateMessage message to send to subscribers
+     */
+    public void notifyRestaurant(Long restaurantId, String updateMessage) {
+
+        if(restaurantId == null) return;
+
+        notificationListeners.forEach(ne -> {
+            if(ne.getType() != NotificationType.NOTIFICATION_RESTAURANT || !restaurantId.equals(ne.getAwaitedId())) return;
+
+            ClientConnection session = ne.getConnection();
+            if(session.isOpen()) {
+                try {
+                    session.send(ne.getType().getTranslation() + ";" + restaurantId + ";" + updateMessage);
+                } catch (IOException e) {
+                    logger.warn("Failed to send message to {}: {}", session.getRemoteAddress(), e.getMessage());
+                }
+            }
+        });
+    }
+
     /**
      *
      * Sends error to the client
@@ -1,11 +1,13 @@
 package eva.platzda.backend.core.repositories;
 
+import eva.platzda.backend.core.availability.OpeningInterval;
 import eva.platzda.backend.core.models.OpeningHours;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface HoursRepository extends JpaRepository<OpeningHours, Long> {
@@ -17,6 +19,12 @@ public interface HoursRepository extends JpaRepository<OpeningHours, Long> {
     @Query("SELECT b FROm OpeningHours b WHERE b.restaurant.id = :restaurantId AND b.weekday = :weekday ORDER BY b.openingTime")
     List<OpeningHours> findByWeekday(@Param("weekday") int weekday, @Param("restaurantId") Long restaurantId);
 
+    @Query("SELECT new eva.platzda.backend.core.availability.OpeningInterval(b.restaurant.id, b.weekday, b.openingTime, b.closingTime) FROM OpeningHours b")
+    List<OpeningInterval> findAllOpeningIntervals();
+
+    @Query("SELECT new eva.platzda.backend.core.availability.OpeningInterval(b.restaurant.id, b.weekday, b.openingTime, b.closingTime) FROM OpeningHours b WHERE b.restaurant.id IN :restaurantIds")
+    List<OpeningInterval> findOpeningIntervals(@Param("restaurantIds") Collection<Long> restaurantIds);
+
     @Modifying
     @Query("DELETE FROM OpeningHours h WHERE h.restaurant.id = :restaurantId")
     void deleteByRestaurantId(@Param("restaurantId") Long restaurantId);
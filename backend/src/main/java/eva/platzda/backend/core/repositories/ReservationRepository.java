@@ -3,13 +3,17 @@ package eva.platzda.backend.core.repositories;
 import eva.platzda.backend.core.models.Reservation;
 import eva.platzda.backend.core.models.RestaurantTable;
 import eva.platzda.backend.core.models.User;
+import eva.platzda.backend.core.repositories.projections.ReservationView;
+import eva.platzda.backend.core.repositories.projections.UserBookingView;
 import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface ReservationRepository extends JpaRepository<Reservation, Long> {
@@ -47,18 +51,60 @@ ANd r.endTime > :startTime
                                             @Param("endTime") LocalDateTime end);
 
     @Query("""
-           SELECT r FROM Reservation r
+           SELECT new eva.platzda.backend.core.repositories.projections.ReservationView(r.id, r.restaurantTable.id, u.id, r.startTime, r.endTime, r.numberOfGuests)
+           FROM Reservation r LEFT JOIN r.user u
            WHERE r.restaurantTable.restaurant.id = :restaurantId
              AND r.startTime >= :dayStart
              AND r.endTime   <= :dayEnd
            ORDER BY r.startTime
            """)
-    List<Reservation> findReservationsForRestaurant(@Param("restaurantId") Long restaurantId,
+    List<ReservationView> findReservationsForRestaurant(@Param("restaurantId") Long restaurantId,
                                                     @Param("dayStart") LocalDateTime dayStart,
                                                     @Param("dayEnd") LocalDateTime dayEnd);
 
+    @Query("""
+           SELECT new eva.platzda.backend.core.repositories.projections.ReservationView(r.id, r.restaurantTable.id, u.id, r.startTime, r.endTime, r.numberOfGuests)
+           FROM Reservation r LEFT JOIN r.user u
+           WHERE r.restaurantTable.restaurant.id IN :restaurantIds
+             AND r.startTime < :to
+             AND r.endTime > :from
+           """)
+    List<ReservationView> findOverlappingForRestaurants(@Param("restaurantIds") Collection<Long> restaurantIds,
+                                                        @Param("from") LocalDateTime from,
+                                                        @Param("to") LocalDateTime to);
+
     @Query("""
 SELECT u FROM Reservation u WHERE u.user = :user ORDER BY u.startTime
 """)
     List<Reservation> findReservationForUser(@Param("user") User user);
+
+    @Query("""
+SELECT DISTINCT new eva.platzda.backend.core.repositories.projections.UserBookingView(r.user.id, r.restaurantTable.restaurant.id, r.startTime)
+FROM Reservation r
+WHERE r.startTime >= :from
+AND r.user IS NOT NULL
+""")
+    List<UserBookingView> findUserBookingsFrom(@Param("from") LocalDateTime from);
+
+    @Query("""
+SELECT COUNT(r) > 0
+FROM Reservation r
+WHERE r.user.id = :userId
+AND r.restaurantTable.restaurant.id = :restaurantId
+AND r.startTime = :start
+""")
+    boolean existsBooking(@Param("userId") Long userId,
+                          @Param("restaurantId") Long restaurantId,
+                          @Param("start") LocalDateTime start);
+
+    @Query("""
+SELECT r FROM Reservation r WHERE r.heldUntil IS NOT NULL
+""")
+    List<Reservation> findHeld();
+
+    @Modifying
+    @Query("""
+UPDATE Reservation r SET r.heldUntil = NULL, r.version = r.version + 1 WHERE r.id IN :ids
+""")
+    int clearHold(@Param("ids") List<Long> ids);
 }
@@ -1,7 +1,14 @@
 package eva.platzda.backend.core.repositories;
 
+import eva.platzda.backend.core.availability.RestaurantTag;
 import eva.platzda.backend.core.models.Restaurant;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
 
 public interface RestaurantRepository extends JpaRepository<Restaurant, Long> {
+
+    @Query("SELECT new eva.platzda.backend.core.availability.RestaurantTag(r.id, tag) FROM Restaurant r JOIN r.tags tag")
+    List<RestaurantTag> findAllTags();
 }
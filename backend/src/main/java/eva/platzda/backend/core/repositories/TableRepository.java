@@ -1,11 +1,16 @@
 package eva.platzda.backend.core.repositories;
 
+import eva.platzda.backend.core.availability.RestaurantCapacity;
+import eva.platzda.backend.core.availability.TableState;
 import eva.platzda.backend.core.models.RestaurantTable;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface TableRepository extends JpaRepository<RestaurantTable, Long> {
@@ -15,6 +20,24 @@ public interface TableRepository extends JpaRepository<RestaurantTable, Long> {
 
     List<RestaurantTable> findByRestaurantId(Long restaurantId);
 
+    @Query("""
+           SELECT new eva.platzda.backend.core.availability.TableState(t.id, t.restaurant.id, t.size)
+           FROM RestaurantTable t
+           WHERE t.restaurant.id IN :restaurantIds
+           """)
+    List<TableState> findTableStates(@Param("restaurantIds") Collection<Long> restaurantIds);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t FROM RestaurantTable t WHERE t.restaurant.id = :restaurantId ORDER BY t.id")
+    List<RestaurantTable> findByRestaurantIdForUpdate(@Param("restaurantId") Long restaurantId);
+
+    @Query("""
+           SELECT new eva.platzda.backend.core.availability.RestaurantCapacity(r.id, r.address, r.timeSlotDuration, SUM(t.size), MAX(t.size), r.bookingConcurrency, r.maxBookingsPerUserDay)
+           FROM Restaurant r LEFT JOIN RestaurantTable t ON t.restaurant = r
+           GROUP BY r.id, r.address, r.timeSlotDuration, r.bookingConcurrency, r.maxBookingsPerUserDay
+           """)
+    List<RestaurantCapacity> findRestaurantCapacities();
+
     @Modifying
     @Query("DELETE FROM RestaurantTable t WHERE t.restaurant.id = :restaurantId")
     void deleteByRestaurantId(@Param("restaurantId") Long restaurantId);
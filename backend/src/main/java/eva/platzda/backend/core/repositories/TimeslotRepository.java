@@ -1,15 +1,20 @@
 package eva.platzda.backend.core.repositories;
 
+import eva.platzda.backend.core.availability.SlotState;
 import eva.platzda.backend.core.models.RestaurantTable;
 import eva.platzda.backend.core.models.Timeslot;
 import eva.platzda.backend.core.models.User;
+import eva.platzda.backend.core.repositories.projections.TimeslotView;
 import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface TimeslotRepository extends JpaRepository<Timeslot, Long> {
@@ -19,25 +24,87 @@ public interface TimeslotRepository extends JpaRepository<Timeslot, Long> {
 
     @Query("""
             SELECT t from Timeslot t 
-            WHERE t.startTime >= :start
+            WHERE t.table = :table
+            AND t.startTime >= :start
             AND t.endTime <= :end
             AND t.user = :user
 """)
-    List<Timeslot> findTimeslotsForReservation(@Param("start") LocalDateTime start,
+    List<Timeslot> findTimeslotsForReservation(@Param("table") RestaurantTable table,
+                                               @Param("start") LocalDateTime start,
                                                @Param("end") LocalDateTime end,
                                                @Param("user") User user);
 
     @Query("""
-           SELECT t FROM Timeslot t
+           SELECT new eva.platzda.backend.core.repositories.projections.TimeslotView(t.id, t.table.id, t.startTime, t.endTime, u.id)
+           FROM Timeslot t LEFT JOIN t.user u
+           ORDER BY t.id
+           """)
+    List<TimeslotView> findAllViews();
+
+    @Query("""
+           SELECT new eva.platzda.backend.core.repositories.projections.TimeslotView(t.id, t.table.id, t.startTime, t.endTime, u.id)
+           FROM Timeslot t LEFT JOIN t.user u
            WHERE t.table.restaurant.id = :restaurantId
              AND t.startTime >= :dayStart
              AND t.endTime   <= :dayEnd
            ORDER BY t.table.id, t.startTime
            """)
-    List<Timeslot> findAllForRestaurantAndDay(@Param("restaurantId") Long restaurantId,
+    List<TimeslotView> findAllForRestaurantAndDay(@Param("restaurantId") Long restaurantId,
                                               @Param("dayStart") LocalDateTime dayStart,
                                               @Param("dayEnd")   LocalDateTime dayEnd);
 
+    @Query("""
+           SELECT new eva.platzda.backend.core.repositories.projections.TimeslotView(t.id, t.table.id, t.startTime, t.endTime, u.id)
+           FROM Timeslot t LEFT JOIN t.user u
+           WHERE t.table.restaurant.id = :restaurantId
+             AND t.startTime >= :from
+             AND t.startTime <  :to
+           """)
+    List<TimeslotView> findViewsForRestaurant(@Param("restaurantId") Long restaurantId,
+                                              @Param("from") LocalDateTime from,
+                                              @Param("to") LocalDateTime to);
+
+    @Modifying
+    @Query(value = "DELETE FROM timeslot WHERE start_time < :before FETCH FIRST :limit ROWS ONLY", nativeQuery = true)
+    int deleteStartingBefore(@Param("before") LocalDateTime before,
+                             @Param("limit") int limit);
+
+    @Query("""
+           SELECT DISTINCT cast(t.startTime as LocalDate) FROM Timeslot t
+           WHERE t.table.restaurant.id = :restaurantId
+             AND t.startTime >= :from
+             AND t.startTime <  :to
+           """)
+    List<LocalDate> findMaterializedDays(@Param("restaurantId") Long restaurantId,
+                                         @Param("from") LocalDateTime from,
+                                         @Param("to") LocalDateTime to);
+
+    @Modifying
+    @Query("DELETE FROM Timeslot t WHERE t.id IN :ids AND t.user IS NULL")
+    int deleteFreeByIds(@Param("ids") Collection<Long> ids);
+
+    @Query("""
+           SELECT new eva.platzda.backend.core.availability.SlotState(t.table.id, t.startTime, u.id)
+           FROM Timeslot t LEFT JOIN t.user u
+           WHERE t.table.restaurant.id = :restaurantId
+             AND t.startTime >= :from
+             AND t.startTime <  :to
+           """)
+    List<SlotState> findSlotStatesForRestaurant(@Param("restaurantId") Long restaurantId,
+                                                @Param("from") LocalDateTime from,
+                                                @Param("to") LocalDateTime to);
+
+    @Query("""
+           SELECT new eva.platzda.backend.core.availability.SlotState(t.table.id, t.startTime, u.id)
+           FROM Timeslot t LEFT JOIN t.user u
+           WHERE t.table.restaurant.id IN :restaurantIds
+             AND t.startTime >= :from
+             AND t.startTime <  :to
+           """)
+    List<SlotState> findSlotStatesForRestaurants(@Param("restaurantIds") Collection<Long> restaurantIds,
+                                                 @Param("from") LocalDateTime from,
+                                                 @Param("to") LocalDateTime to);
+
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     @Query("""
            SELECT t FROM Timeslot t
@@ -50,6 +117,53 @@ public interface TimeslotRepository extends JpaRepository<Timeslot, Long> {
                                       @Param("start") LocalDateTime start,
                                       @Param("end") LocalDateTime end);
 
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("""
+           SELECT t FROM Timeslot t
+           WHERE t.table.restaurant.id = :restaurantId
+             AND t.startTime >= :start
+             AND t.endTime   <= :end
+           ORDER BY t.table.id, t.startTime
+           """)
+    List<Timeslot> findRestaurantSlotsForUpdate(@Param("restaurantId") Long restaurantId,
+                                                @Param("start") LocalDateTime start,
+                                                @Param("end") LocalDateTime end);
+
+    @Query("""
+           SELECT t FROM Timeslot t
+           WHERE t.table.restaurant.id = :restaurantId
+             AND t.startTime >= :start
+             AND t.endTime   <= :end
+           ORDER BY t.table.id, t.startTime
+           """)
+    List<Timeslot> findRestaurantSlots(@Param("restaurantId") Long restaurantId,
+                                       @Param("start") LocalDateTime start,
+                                       @Param("end") LocalDateTime end);
+
+    @Query("""
+           SELECT COUNT(t) FROM Timeslot t
+           WHERE t.table.id = :tableId
+             AND t.startTime >= :start
+             AND t.startTime <  :end
+             AND t.user IS NULL
+           """)
+    long countFreeSlots(@Param("tableId") Long tableId,
+                        @Param("start") LocalDateTime start,
+                        @Param("end") LocalDateTime end);
+
+    @Modifying
+    @Query("""
+           UPDATE Timeslot t SET t.user = :user, t.version = t.version + 1
+           WHERE t.table.id = :tableId
+             AND t.startTime >= :start
+             AND t.startTime <  :end
+             AND t.user IS NULL
+           """)
+    int assignFreeSlots(@Param("tableId") Long tableId,
+                        @Param("user") User user,
+                        @Param("start") LocalDateTime start,
+                        @Param("end") LocalDateTime end);
+
     @Query("""
 SELECT t FROM Timeslot t
 WHERE t.user = :user
@@ -0,0 +1,16 @@
+package eva.platzda.backend.core.repositories.projections;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only projection of a reservation with its links flattened to IDs.
+ *
+ * @param id ID of the reservation
+ * @param tableId ID of the reserved table
+ * @param userId ID of the user who made the reservation
+ * @param startTime Start time of the reservation
+ * @param endTime End time of the reservation
+ * @param numberOfGuests Number of guests at this table
+ */
+public record ReservationView(Long id, Long tableId, Long userId, LocalDateTime startTime, LocalDateTime endTime, int numberOfGuests) {
+}
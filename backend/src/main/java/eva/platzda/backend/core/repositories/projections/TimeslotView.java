@@ -0,0 +1,15 @@
+package eva.platzda.backend.core.repositories.projections;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only projection of a timeslot with its links flattened to IDs.
+ *
+ * @param id ID of the timeslot
+ * @param tableId ID of the table
+ * @param startTime Start time of the timeslot
+ * @param endTime End time of the timeslot
+ * @param userId ID of the booking user, null if the slot is free
+ */
+public record TimeslotView(Long id, Long tableId, LocalDateTime startTime, LocalDateTime endTime, Long userId) {
+}
@@ -0,0 +1,13 @@
+package eva.platzda.backend.core.repositories.projections;
+
+import java.time.LocalDateTime;
+
+/**
+ * A booking of a user, i.e. all reservations made together at one restaurant and start time.
+ *
+ * @param userId ID of the user who made the booking
+ * @param restaurantId ID of the restaurant
+ * @param startTime Start time of the booking
+ */
+public record UserBookingView(Long userId, Long restaurantId, LocalDateTime startTime) {
+}
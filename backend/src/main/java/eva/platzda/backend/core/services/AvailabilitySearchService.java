@@ -0,0 +1,144 @@
+package eva.platzda.backend.core.services;
+
+import eva.platzda.backend.core.availability.AvailabilityEngine;
+import eva.platzda.backend.core.availability.CapacityProfile;
+import eva.platzda.backend.core.availability.CapacitySummaries;
+import eva.platzda.backend.core.availability.CapacitySummary;
+import eva.platzda.backend.core.availability.DayOccupancy;
+import eva.platzda.backend.core.availability.OccupancyIndex;
+import eva.platzda.backend.core.availability.OpeningInterval;
+import eva.platzda.backend.core.dtos.BookingAlternatives;
+import eva.platzda.backend.core.dtos.RestaurantAvailability;
+import eva.platzda.backend.core.dtos.TimeWindow;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Service for searching restaurants that can seat a party at a given time.
+ *
+ * Restaurants are ruled out by their {@link CapacitySummary} first; the occupancy of the
+ * remaining candidates is loaded in one batch and evaluated in parallel on a fork-join pool.
+ */
+@Service
+public class AvailabilitySearchService implements DisposableBean {
+
+    private final CapacitySummaries capacitySummaries;
+    private final OccupancyIndex occupancyIndex;
+    private final AvailabilityEngine availabilityEngine;
+    private final TimeslotGenerationService timeslotGenerationService;
+
+    private final ForkJoinPool searchPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+    @Autowired
+    public AvailabilitySearchService(CapacitySummaries capacitySummaries,
+                                     OccupancyIndex occupancyIndex,
+                                     AvailabilityEngine availabilityEngine,
+                                     TimeslotGenerationService timeslotGenerationService) {
+        this.capacitySummaries = capacitySummaries;
+        this.occupancyIndex = occupancyIndex;
+        this.availabilityEngine = availabilityEngine;
+        this.timeslotGenerationService = timeslotGenerationService;
+    }
+
+    @Override
+    public void destroy() {
+        searchPool.shutdownNow();
+    }
+
+    /**
+     * Finds all restaurants, optionally filtered by tags, that can seat a party starting at a given time.
+     *
+     * @param taglist Comma separated tags the restaurants must carry, null or blank for all restaurants
+     * @param start Start of the reservation
+     * @param guests Number of guests
+     * @return Matching restaurants with their free seats, ordered by restaurant ID
+     */
+    public List<RestaurantAvailability> findRestaurantsWithCapacity(String taglist, LocalDateTime start, int guests) {
+        List<String> tags = (taglist == null || taglist.isBlank()) ? List.of() : List.of(taglist.split(","));
+
+        int slot = DayOccupancy.slotIndex(start.toLocalTime());
+        if (slot < 0) return List.of();
+
+        List<CapacitySummary> candidates = searchPool.submit(() -> capacitySummaries.all().parallelStream()
+                .filter(s -> s.hasTags(tags))
+                .filter(s -> s.canPossiblySeat(guests, start))
+                .toList()).join();
+        if (candidates.isEmpty()) return List.of();
+
+        LocalDate day = start.toLocalDate();
+        timeslotGenerationService.ensureMaterialized(candidates.stream().map(CapacitySummary::restaurantId).toList(), day);
+        occupancyIndex.preloadDay(candidates.stream().map(CapacitySummary::restaurantId).toList(), day);
+
+        return searchPool.submit(() -> candidates.parallelStream()
+                .map(c -> evaluate(c, day, slot, guests, start))
+                .filter(Objects::nonNull)
+                .sorted(Comparator.comparing(RestaurantAvailability::restaurantId))
+                .toList()).join();
+    }
+
+    /**
+     * Collects feasible alternatives for a reservation that failed for lack of capacity.
+     *
+     * Works on the resident occupancy index and the capacity summaries only: the requested
+     * day of the restaurant is normally resident already, sibling restaurants are only
+     * considered if their day is resident, so no further queries are issued for them.
+     *
+     * @param restaurantId ID of the restaurant that was fully booked
+     * @param start Requested start of the reservation
+     * @param guests Number of guests
+     * @param k Maximum number of alternatives per direction and for other restaurants
+     * @param includeSiblings Whether restaurants carrying the same tags are searched as well
+     * @return Earlier and later windows on the same day and matching other restaurants
+     */
+    public BookingAlternatives findAlternatives(Long restaurantId, LocalDateTime start, int guests, int k, boolean includeSiblings) {
+        CapacitySummary summary = capacitySummaries.get(restaurantId);
+        if (summary == null || k <= 0) return new BookingAlternatives(List.of(), List.of(), List.of());
+
+        LocalDate day = start.toLocalDate();
+        DayOccupancy occupancy = occupancyIndex.get(restaurantId, day);
+        List<OpeningInterval> hours = summary.hoursByWeekday().getOrDefault(day.getDayOfWeek().getValue(), List.of());
+
+        List<TimeWindow> earlier = availabilityEngine.findNearestWindows(occupancy, hours, summary.timeSlotDuration(), guests, start, k, true);
+        List<TimeWindow> later = availabilityEngine.findNearestWindows(occupancy, hours, summary.timeSlotDuration(), guests, start, k, false);
+
+        List<RestaurantAvailability> elsewhere = List.of();
+        int slot = DayOccupancy.slotIndex(start.toLocalTime());
+        if (includeSiblings && slot >= 0) {
+            List<String> tags = List.copyOf(summary.tags());
+            elsewhere = capacitySummaries.all().stream()
+                    .filter(s -> !s.restaurantId().equals(restaurantId))
+                    .filter(s -> s.hasTags(tags))
+                    .filter(s -> s.canPossiblySeat(guests, start))
+                    .map(s -> {
+                        DayOccupancy resident = occupancyIndex.peek(s.restaurantId(), day);
+                        return resident == null ? null : evaluate(s, resident, slot, guests, start);
+                    })
+                    .filter(Objects::nonNull)
+                    .sorted(Comparator.comparing(RestaurantAvailability::restaurantId))
+                    .limit(k)
+                    .toList();
+        }
+        return new BookingAlternatives(earlier, later, elsewhere);
+    }
+
+    private RestaurantAvailability evaluate(CapacitySummary summary, LocalDate day, int slot, int guests, LocalDateTime start) {
+        return evaluate(summary, occupancyIndex.get(summary.restaurantId(), day), slot, guests, start);
+    }
+
+    private RestaurantAvailability evaluate(CapacitySummary summary, DayOccupancy occupancy, int slot, int guests, LocalDateTime start) {
+        CapacityProfile profile = occupancy.profile(summary.timeSlotDuration());
+        int seats = profile.freeSeats()[slot];
+        if (seats == 0 || profile.maxParty(slot) < guests) return null;
+
+        TimeWindow window = new TimeWindow(start, start.plusMinutes((long) summary.timeSlotDuration() * DayOccupancy.SLOT_MINUTES), seats);
+        return new RestaurantAvailability(summary.restaurantId(), summary.address(), List.copyOf(summary.tags()), window);
+    }
+}
@@ -1,6 +1,8 @@
 package eva.platzda.backend.core.services;
 
 
+import eva.platzda.backend.core.availability.CapacitySummaries;
+import eva.platzda.backend.core.availability.OccupancyIndex;
 import eva.platzda.backend.core.models.OpeningHours;
 import eva.platzda.backend.core.models.Restaurant;
 import eva.platzda.backend.core.repositories.HoursRepository;
@@ -12,7 +14,9 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Service for managing opening hours of restaurants.
@@ -30,14 +34,18 @@ public class HoursService {
 
     private final EntityManager em;
     private final TimeslotRepository timeslotRepository;
+    private final OccupancyIndex occupancyIndex;
+    private final CapacitySummaries capacitySummaries;
 
     @Autowired
-    public HoursService(HoursRepository hoursRepository, RestaurantRepository restaurantRepository, TimeslotGenerationService timeslotGenerationService, EntityManager em, TimeslotRepository timeslotRepository) {
+    public HoursService(HoursRepository hoursRepository, RestaurantRepository restaurantRepository, TimeslotGenerationService timeslotGenerationService, EntityManager em, TimeslotRepository timeslotRepository, OccupancyIndex occupancyIndex, CapacitySummaries capacitySummaries) {
         this.hoursRepository = hoursRepository;
         this.restaurantRepository = restaurantRepository;
         this.timeslotGenerationService = timeslotGenerationService;
         this.em = em;
         this.timeslotRepository = timeslotRepository;
+        this.occupancyIndex = occupancyIndex;
+        this.capacitySummaries = capacitySummaries;
     }
 
     /**
@@ -89,7 +97,8 @@ public class HoursService {
         hours.setId(null);
         OpeningHours saved = hoursRepository.save(hours);
 
-        timeslotGenerationService.updateTimeslots(hours.getRestaurant());
+        timeslotGenerationService.updateTimeslots(hours.getRestaurant(), List.of(hours.getWeekday()));
+        capacitySummaries.invalidate();
 
         return saved;
     }
@@ -103,9 +112,16 @@ public class HoursService {
      */
     @Transactional
     public OpeningHours updateOpeningHours(OpeningHours hours) {
+        //the entry may have moved to another weekday, both need to be reconciled
+        Set<Integer> weekdays = new HashSet<>();
+        if (hours.getId() != null) {
+            hoursRepository.findById(hours.getId()).ifPresent(old -> weekdays.add(old.getWeekday()));
+        }
 
         OpeningHours saved = hoursRepository.save(hours);
-        timeslotGenerationService.updateTimeslots(hours.getRestaurant());
+        weekdays.add(saved.getWeekday());
+        timeslotGenerationService.updateTimeslots(saved.getRestaurant(), weekdays);
+        capacitySummaries.invalidate();
         return saved;
     }
 
@@ -121,7 +137,8 @@ public class HoursService {
         Restaurant restaurant = hours.getRestaurant();
 
         hoursRepository.deleteById(id);
-        timeslotGenerationService.updateTimeslots(restaurant);
+        timeslotGenerationService.updateTimeslots(restaurant, List.of(hours.getWeekday()));
+        capacitySummaries.invalidate();
     }
 
     /**
@@ -136,6 +153,7 @@ public class HoursService {
 
         hoursRepository.deleteByRestaurantId(restaurantId);
         timeslotGenerationService.updateTimeslots(restaurant);
+        capacitySummaries.invalidate();
     }
 
     /**
@@ -146,5 +164,7 @@ public class HoursService {
         hoursRepository.deleteAll();
         em.createNativeQuery("ALTER TABLE opening_hours ALTER COLUMN id RESTART WITH 1").executeUpdate();
         timeslotRepository.deleteAll();
+        occupancyIndex.invalidateAll();
+        capacitySummaries.invalidate();
     }
 }
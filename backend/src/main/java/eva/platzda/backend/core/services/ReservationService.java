@@ -1,23 +1,48 @@
 package eva.platzda.backend.core.services;
 
 
+import eva.platzda.backend.core.availability.AvailabilityCache;
+import eva.platzda.backend.core.availability.AvailabilityEngine;
+import eva.platzda.backend.core.availability.CapacitySummaries;
+import eva.platzda.backend.core.availability.CapacitySummary;
+import eva.platzda.backend.core.availability.OccupancyIndex;
+import eva.platzda.backend.core.booking.TableAllocator;
+import eva.platzda.backend.core.booking.UserBookingIndex;
+import eva.platzda.backend.core.booking.Waitlist;
+import eva.platzda.backend.core.availability.TransactionHooks;
+import eva.platzda.backend.core.availability.VirtualTimeslots;
+import eva.platzda.backend.core.dtos.BatchReservationResult;
+import eva.platzda.backend.core.dtos.DayAvailability;
+import eva.platzda.backend.core.dtos.ReservationRequest;
 import eva.platzda.backend.core.dtos.TimeWindow;
+import eva.platzda.backend.core.dtos.WaitlistEntry;
 import eva.platzda.backend.core.models.*;
 import eva.platzda.backend.core.notifications.NotificationSocket;
 import eva.platzda.backend.core.repositories.*;
+import eva.platzda.backend.core.repositories.projections.ReservationView;
+import eva.platzda.backend.error_handling.BadRequestBodyException;
 import eva.platzda.backend.error_handling.NotEnoughCapacityException;
 import eva.platzda.backend.error_handling.NotFoundException;
+import eva.platzda.backend.error_handling.TooManyBookingsException;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.OptimisticLockException;
 import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.*;
-import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Service for managing reservations.
@@ -28,6 +53,8 @@ import java.util.concurrent.CompletableFuture;
 @Service
 public class ReservationService {
 
+    private static final Logger logger = LoggerFactory.getLogger(ReservationService.class);
+
     private final TimeslotRepository timeslotRepository;
     private final TableRepository tableRepository;
     private final UserRepository userRepository;
@@ -36,9 +63,31 @@ public class ReservationService {
     private final RestaurantRepository restaurantRepository;
 
     private final NotificationSocket notificationSocket;
+    private final OccupancyIndex occupancyIndex;
+    private final AvailabilityEngine availabilityEngine;
+    private final AvailabilityCache availabilityCache;
+    private final TableAllocator tableAllocator;
+    private final UserBookingIndex userBookingIndex;
+    private final Waitlist waitlist;
+    private final VirtualTimeslots virtualTimeslots;
+    private final TimeslotGenerationService timeslotGenerationService;
 
     private final EntityManager em;
 
+    private final AtomicLong lockedBookings = new AtomicLong();
+    private final AtomicLong lockWaitNanos = new AtomicLong();
+    private final AtomicLong maxLockWaitNanos = new AtomicLong();
+
+    private final CapacitySummaries capacitySummaries;
+    private final TransactionTemplate transactionTemplate;
+    private final BookingConcurrency defaultConcurrency;
+    private final int optimisticMaxAttempts;
+    private final long optimisticBackoffMillis;
+
+    private final AtomicLong optimisticAttempts = new AtomicLong();
+    private final AtomicLong optimisticConflicts = new AtomicLong();
+    private final AtomicLong optimisticExhausted = new AtomicLong();
+
     /**
      *All Args Constructor
      */
@@ -50,6 +99,19 @@ public class ReservationService {
                               HoursRepository hoursRepository,
                               RestaurantRepository restaurantRepository,
                               NotificationSocket notificationSocket,
+                              OccupancyIndex occupancyIndex,
+                              AvailabilityEngine availabilityEngine,
+                              AvailabilityCache availabilityCache,
+                              TableAllocator tableAllocator,
+                              UserBookingIndex userBookingIndex,
+                              Waitlist waitlist,
+                              VirtualTimeslots virtualTimeslots,
+                              TimeslotGenerationService timeslotGenerationService,
+                              CapacitySummaries capacitySummaries,
+                              TransactionTemplate transactionTemplate,
+                              @Value("${platzda.booking.default-concurrency:pessimistic}") String defaultConcurrency,
+                              @Value("${platzda.booking.optimistic.max-attempts:5}") int optimisticMaxAttempts,
+                              @Value("${platzda.booking.optimistic.backoff-ms:10}") long optimisticBackoffMillis,
                               EntityManager em) {
         this.timeslotRepository = timeslotRepository;
         this.tableRepository = tableRepository;
@@ -58,68 +120,29 @@ public class ReservationService {
         this.hoursRepository = hoursRepository;
         this.restaurantRepository = restaurantRepository;
         this.notificationSocket = notificationSocket;
+        this.occupancyIndex = occupancyIndex;
+        this.availabilityEngine = availabilityEngine;
+        this.availabilityCache = availabilityCache;
+        this.tableAllocator = tableAllocator;
+        this.userBookingIndex = userBookingIndex;
+        this.waitlist = waitlist;
+        this.virtualTimeslots = virtualTimeslots;
+        this.timeslotGenerationService = timeslotGenerationService;
+        this.capacitySummaries = capacitySummaries;
+        this.transactionTemplate = transactionTemplate;
+        this.defaultConcurrency = BookingConcurrency.valueOf(defaultConcurrency.toUpperCase());
+        this.optimisticMaxAttempts = optimisticMaxAttempts;
+        this.optimisticBackoffMillis = optimisticBackoffMillis;
         this.em = em;
     }
 
-    /**
-     * Checks whether a list of timeslots is continuous in time.
-     *
-     * @param window List of timeslots
-     * @return true if all timeslots are continuous, false otherwise
-     */
-    private boolean isContinuous(List<Timeslot> window) {
-        for(int i = 1; i < window.size(); i++) {
-            if (!window.get(i).getStartTime().equals(window.get(i - 1).getEndTime())) {
-                return false;
-            }
-        }
-        return true;
-    }
-
-    /**
-     * Finds free time windows for a given table asynchronously.
-     *
-     * @param table Table to check
-     * @param dayStart Start time of the day
-     * @param dayEnd End time of the day
-     * @return CompletableFuture containing a list of available time windows
-     */
-    @Async("reservationExecutor")
-    public CompletableFuture<List<TimeWindow>> findFreeWindowsForTable(RestaurantTable table,
-                                                                       LocalDateTime dayStart,
-                                                                       LocalDateTime dayEnd) {
-        List<Timeslot> ts = timeslotRepository
-                .findAllForRestaurantAndDay(table.getRestaurant().getId(), dayStart, dayEnd)
-                .stream()
-                .filter(slot -> slot.getTable().equals(table))
-                .toList();
-
-        List<TimeWindow> windows = new ArrayList<>();
-
-        int res_slots = table.getRestaurant().getTimeSlotDuration();
-
-        for (int i = 0; i <= ts.size() - res_slots; i++) {
-            List<Timeslot> window = ts.subList(i, i + res_slots);
-            boolean allFree = window.stream().allMatch(s -> s.getUser() == null);
-            if (allFree && isContinuous(window)) {
-                Timeslot first = window.get(0);
-                Timeslot last = window.getLast();
-
-                TimeWindow tw = new TimeWindow(
-                        first.getStartTime(),
-                        last.getEndTime(),
-                        table.getSize()
-                );
-                windows.add(tw);
-            }
-        }
-        return CompletableFuture.completedFuture(windows);
-
-    }
-
     /**
      * Finds all free timeslots for a restaurant on a given day that can accommodate a specified number of guests.
      *
+     * The day is fetched once and all tables are evaluated in a single pass by the {@link AvailabilityEngine}.
+     * Results are served from the {@link AvailabilityCache} for the same opening hours until a
+     * booking, cancellation or timeslot change of that restaurant day invalidates them.
+     *
      * @param restaurantId ID of the restaurant
      * @param day Date of interest
      * @param open Opening time
@@ -137,39 +160,126 @@ public class ReservationService {
             return Collections.emptyList();
         }
 
-        LocalDateTime dayStart = day.atTime(open);
-        LocalDateTime dayEnd = day.atTime(close);
+        timeslotGenerationService.ensureMaterialized(restaurantId, day);
+        return availabilityCache.get(restaurantId, day, open, close, guests, () -> {
+            int res_slots = restaurantRepository.getReferenceById(restaurantId).getTimeSlotDuration();
+            return availabilityEngine.findFreeWindows(restaurantId, day, open, close, res_slots, guests);
+        });
+    }
 
-        List<RestaurantTable> tables = tableRepository.findByRestaurantId(restaurantId);
+    /**
+     * Finds the free timeslots of a restaurant for every day between from and to (inclusive).
+     *
+     * Opening hours and timeslots of the whole range are read once up front; the returned
+     * stream is lazy and computes each day only when it is consumed, so callers can emit
+     * results incrementally.
+     *
+     * @param restaurant Restaurant entity
+     * @param from First day
+     * @param to Last day
+     * @param guests Number of guests
+     * @return Stream of available time windows per day
+     * @throws BadRequestBodyException if the range is empty or longer than the pregenerated weeks
+     */
+    public Stream<DayAvailability> findFreeSlotsRange(Restaurant restaurant,
+                                                      LocalDate from,
+                                                      LocalDate to,
+                                                      int guests) {
 
-        List<CompletableFuture<List<TimeWindow>>> futures = tables.stream()
-                .map(t -> findFreeWindowsForTable(t, dayStart, dayEnd))
-                .toList();
+        if(restaurant == null) throw new NotFoundException("Restaurant not found");
 
-        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
-        List<TimeWindow> allWindows = futures.stream()
-                .flatMap(f -> f.join().stream())
-                .toList();
+        int maxDays = TimeslotGenerationService.WEEKS_PREGENERATED * 7 + 1;
+        if(to.isBefore(from)) throw new BadRequestBodyException("'to' must not be before 'from'");
+        if(from.plusDays(maxDays).isBefore(to.plusDays(1))) throw new BadRequestBodyException("Range must not exceed " + maxDays + " days");
+
+        Map<Integer, List<OpeningHours>> hoursByWeekday = hoursRepository.findByRestaurantId(restaurant.getId()).stream()
+                .collect(Collectors.groupingBy(OpeningHours::getWeekday));
+
+        from.datesUntil(to.plusDays(1)).forEach(day -> timeslotGenerationService.ensureMaterialized(restaurant.getId(), day));
+        occupancyIndex.preload(restaurant.getId(), from, to);
+
+        int res_slots = restaurant.getTimeSlotDuration();
 
-        Map<LocalDateTime, Integer> capByStart = new HashMap<>();
-        Map<LocalDateTime, LocalDateTime> endByStart = new HashMap<>();
+        return from.datesUntil(to.plusDays(1)).map(day -> {
+            List<OpeningHours> hours = hoursByWeekday.getOrDefault(day.getDayOfWeek().getValue(), List.of());
+            if(hours.isEmpty()) return new DayAvailability(day, List.of());
 
-        for (TimeWindow w : allWindows) {
-            capByStart.merge(w.start(), w.totalCapacity(), Integer::sum);
-            endByStart.putIfAbsent(w.start(), w.end());
+            LocalTime open = hours.stream().map(OpeningHours::getOpeningTime).filter(Objects::nonNull).min(Comparator.naturalOrder()).orElse(null);
+            LocalTime close = hours.stream().map(OpeningHours::getClosingTime).filter(Objects::nonNull).max(Comparator.naturalOrder()).orElse(null);
+            if(open == null || close == null) return new DayAvailability(day, List.of());
+
+            return new DayAvailability(day, availabilityEngine.findFreeWindows(restaurant.getId(), day, open, close, res_slots, guests));
+        });
+    }
+
+    /**
+     * Books a reservation using the concurrency mode configured for the restaurant.
+     *
+     * In pessimistic mode this is {@link #bookSlot}. In optimistic mode the timeslots are read
+     * without locks and a concurrent booking of the same rows is detected by their version
+     * when the transaction flushes; the booking is then retried in a new transaction after a
+     * random backoff, up to the configured number of attempts.
+     *
+     * @param restaurantId ID of the restaurant
+     * @param userId ID of the user making the reservation
+     * @param start Start time of the reservation
+     * @param guests Number of guests
+     * @return List of created Reservation entities
+     * @throws NotEnoughCapacityException if there is insufficient capacity or every attempt conflicted
+     */
+    public List<Reservation> book(Long restaurantId,
+                                  Long userId,
+                                  LocalDateTime start,
+                                  int guests) {
+        return book(restaurantId, userId, start, guests, null);
+    }
+
+    /**
+     * Books a reservation like {@link #book(Long, Long, LocalDateTime, int)}, optionally only holding the tables.
+     *
+     * Held reservations occupy their timeslots like any other reservation and are marked
+     * with the time they are held until in the same transaction.
+     *
+     * @param restaurantId ID of the restaurant
+     * @param userId ID of the user making the reservation
+     * @param start Start time of the reservation
+     * @param guests Number of guests
+     * @param heldUntil End of the hold, null for a confirmed reservation
+     * @return List of created Reservation entities
+     * @throws NotEnoughCapacityException if there is insufficient capacity or every attempt conflicted
+     */
+    public List<Reservation> book(Long restaurantId,
+                                  Long userId,
+                                  LocalDateTime start,
+                                  int guests,
+                                  LocalDateTime heldUntil) {
+        timeslotGenerationService.ensureMaterialized(restaurantId, start.toLocalDate());
+        //computed timeslots have no versioned rows, so they are always booked under lock
+        if (virtualTimeslots.isEnabled() || concurrencyOf(restaurantId) == BookingConcurrency.PESSIMISTIC) {
+            return transactionTemplate.execute(status -> hold(bookSlot(restaurantId, userId, start, guests), heldUntil));
         }
 
-        return capByStart.entrySet().stream()
-                .filter(e -> e.getValue() >= guests)
-                .map(e -> new TimeWindow(e.getKey(), endByStart.get(e.getKey()),e.getValue()))
-                .sorted(Comparator.comparing(TimeWindow::start))
-                .toList();
+        for (int attempt = 1; ; attempt++) {
+            optimisticAttempts.incrementAndGet();
+            try {
+                return transactionTemplate.execute(status -> hold(bookSlotOptimistic(restaurantId, userId, start, guests), heldUntil));
+            } catch (OptimisticLockingFailureException | OptimisticLockException e) {
+                optimisticConflicts.incrementAndGet();
+                if (attempt >= optimisticMaxAttempts) {
+                    optimisticExhausted.incrementAndGet();
+                    throw new NotEnoughCapacityException("Reservation conflicted with concurrent bookings, please try again.");
+                }
+                backoff(attempt);
+            }
+        }
     }
 
     /**
      * Books a reservation for a user at a restaurant starting at a given time.
      *
-     * The method attempts to allocate tables starting with the smallest suitable tables first.
+     * All timeslots of the restaurant within the window are locked with a single query,
+     * ordered by table and start time, so concurrent bookings always lock rows in the
+     * same order. Tables are then chosen in memory by the configured {@link TableAllocator}.
      *
      * @param restaurantId ID of the restaurant
      * @param userId ID of the user making the reservation
@@ -183,54 +293,21 @@ public class ReservationService {
                                     Long userId,
                                     LocalDateTime start,
                                     int guests) {
+        userBookingIndex.reserve(userId, restaurantId, start);
+
         LocalDateTime end = start.plusMinutes(90);
         User user = userRepository.getReferenceById(userId);
-        List<RestaurantTable> tables = tableRepository.findByRestaurantId(restaurantId);
-
-        tables.sort(Comparator.comparing(RestaurantTable::getSize)); //.reversed()
-
-        int res_slots = restaurantRepository.getReferenceById(restaurantId).getTimeSlotDuration();
-
-        int assigned = 0;
-        List<Reservation> reservations = new ArrayList<>();
-
-        List<RestaurantTable> availableTables = new ArrayList<>(tables);
-
-        while ((assigned < guests) && (!availableTables.isEmpty())) {
 
-            int missingSpace = guests - assigned;
+        long lockStart = System.nanoTime();
+        List<Timeslot> lockedSlots = lockSlots(restaurantId, start, end);
+        recordLockWait(System.nanoTime() - lockStart);
 
-            RestaurantTable selectedTable = availableTables.stream()
-                    .filter(t -> t.getSize() >= (missingSpace))
-                    .findFirst()
-                    .orElse(null);
+        Map<RestaurantTable, List<Timeslot>> slotsByTable = lockedSlots.stream()
+                .collect(Collectors.groupingBy(Timeslot::getTable, LinkedHashMap::new, Collectors.toList()));
 
-            if (selectedTable == null) {
-                selectedTable = availableTables.getLast();
-            }
-            List<Timeslot> slots = timeslotRepository.findSlotsForUpdate(selectedTable, start, end);
-            if (slots.size() < res_slots) {
-                availableTables.remove(selectedTable);
-                continue;
-            }
-
-            boolean allFree = slots.stream().allMatch(s -> s.getUser() == null);
-            if (!allFree) {
-                availableTables.remove(selectedTable);
-                continue;
-            }
-
-            int take = Math.min(selectedTable.getSize(), guests-assigned);
-            if (take > 0) {
-                slots.forEach(s -> s.setUser(user));
-                timeslotRepository.saveAll(slots);
+        int res_slots = restaurantRepository.getReferenceById(restaurantId).getTimeSlotDuration();
 
-                Reservation reservation = new Reservation(selectedTable, user, start, end, take);
-                reservations.add(reservation);
-                assigned += take;
-            }
-            availableTables.remove(selectedTable);
-        }
+        List<Reservation> reservations = seatParty(slotsByTable, user, start, end, res_slots, guests);
 
         /*
         for (RestaurantTable table: tables) {
@@ -253,10 +330,6 @@ public class ReservationService {
             }
         }*/
 
-        if (assigned < guests) {
-            throw new NotEnoughCapacityException();
-        }
-
         List<Reservation> savedReservations = reservationRepository.saveAll(reservations);
 
         for (Reservation r: savedReservations) {
@@ -267,6 +340,236 @@ public class ReservationService {
         return savedReservations;
     }
 
+    private List<Reservation> bookSlotOptimistic(Long restaurantId,
+                                                 Long userId,
+                                                 LocalDateTime start,
+                                                 int guests) {
+        userBookingIndex.reserve(userId, restaurantId, start);
+
+        LocalDateTime end = start.plusMinutes(90);
+        User user = userRepository.getReferenceById(userId);
+
+        Map<RestaurantTable, List<Timeslot>> slotsByTable = timeslotRepository.findRestaurantSlots(restaurantId, start, end).stream()
+                .collect(Collectors.groupingBy(Timeslot::getTable, LinkedHashMap::new, Collectors.toList()));
+
+        int res_slots = restaurantRepository.getReferenceById(restaurantId).getTimeSlotDuration();
+
+        List<Reservation> savedReservations = reservationRepository.saveAll(seatParty(slotsByTable, user, start, end, res_slots, guests));
+        //surface version conflicts of the timeslot updates inside this attempt
+        em.flush();
+
+        TransactionHooks.afterCommit(() -> {
+            for (Reservation r: savedReservations) {
+                String msg = "Reservation for table " + r.getRestaurantTable().getId() + " has been booked from " + r.getStartTime() + " to " + r.getEndTime();
+                notificationSocket.notifyChange(r, msg);
+            }
+        });
+
+        return savedReservations;
+    }
+
+    private static List<Reservation> hold(List<Reservation> reservations, LocalDateTime heldUntil) {
+        if (heldUntil != null) reservations.forEach(r -> r.setHeldUntil(heldUntil));
+        return reservations;
+    }
+
+    private BookingConcurrency concurrencyOf(Long restaurantId) {
+        CapacitySummary summary = capacitySummaries.get(restaurantId);
+        if (summary == null || summary.bookingConcurrency() == null) return defaultConcurrency;
+        return summary.bookingConcurrency();
+    }
+
+    private void backoff(int attempt) {
+        //full jitter: a random wait up to an exponentially growing bound
+        long bound = optimisticBackoffMillis << Math.min(attempt - 1, 10);
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(bound + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new NotEnoughCapacityException("Reservation was interrupted, please try again.");
+        }
+    }
+
+    /**
+     * Returns how often optimistic bookings conflicted.
+     *
+     * @return Attempts, conflicts, conflict rate and exhausted retries as String
+     */
+    public String getOptimisticStats() {
+        long attempts = optimisticAttempts.get();
+        long conflicts = optimisticConflicts.get();
+        long rate = attempts == 0 ? 0 : conflicts * 100 / attempts;
+        return "Default mode: " + defaultConcurrency + "\n"
+                + "Attempts: " + attempts + "\n"
+                + "Conflicts: " + conflicts + "\n"
+                + "Conflict rate: " + rate + "%\n"
+                + "Retries exhausted: " + optimisticExhausted.get();
+    }
+
+    /**
+     * Books a batch of reservations for one restaurant in a single transaction.
+     *
+     * The timeslots covering all entries are locked with one ordered query; the entries are then
+     * seated one after another in memory. An entry that cannot be booked is reported and does not
+     * affect the others. Restaurant subscribers are notified once after commit.
+     *
+     * @param restaurantId ID of the restaurant
+     * @param entries Entries of the batch by their position in the request
+     * @return One result per entry
+     */
+    @Transactional
+    public List<BatchReservationResult> bookBatch(Long restaurantId, Map<Integer, ReservationRequest> entries) {
+        Restaurant restaurant = restaurantRepository.findById(restaurantId).orElse(null);
+        if (restaurant == null) {
+            return entries.keySet().stream()
+                    .map(i -> BatchReservationResult.failed(i, "Restaurant with id " + restaurantId + " not found"))
+                    .toList();
+        }
+        int res_slots = restaurant.getTimeSlotDuration();
+
+        LocalDateTime from = entries.values().stream().map(ReservationRequest::start).min(Comparator.naturalOrder()).orElseThrow();
+        LocalDateTime to = entries.values().stream().map(ReservationRequest::start).max(Comparator.naturalOrder()).orElseThrow().plusMinutes(90);
+        entries.values().stream().map(r -> r.start().toLocalDate()).distinct()
+                .forEach(day -> timeslotGenerationService.ensureMaterialized(restaurantId, day));
+
+        long lockStart = System.nanoTime();
+        List<Timeslot> lockedSlots = lockSlots(restaurantId, from, to);
+        recordLockWait(System.nanoTime() - lockStart);
+
+        Map<RestaurantTable, List<Timeslot>> slotsByTable = lockedSlots.stream()
+                .collect(Collectors.groupingBy(Timeslot::getTable, LinkedHashMap::new, Collectors.toList()));
+
+        Map<Long, User> users = userRepository.findAllById(entries.values().stream().map(ReservationRequest::userId).distinct().toList())
+                .stream().collect(Collectors.toMap(User::getId, u -> u));
+
+        List<BatchReservationResult> results = new ArrayList<>();
+        int booked = 0;
+
+        for (Map.Entry<Integer, ReservationRequest> e : entries.entrySet()) {
+            ReservationRequest request = e.getValue();
+            User user = users.get(request.userId());
+
+            if (user == null) {
+                results.add(BatchReservationResult.failed(e.getKey(), "User with id " + request.userId() + " not found"));
+                continue;
+            }
+            try {
+                userBookingIndex.reserve(user.getId(), restaurantId, request.start());
+            } catch (TooManyBookingsException ex) {
+                results.add(BatchReservationResult.failed(e.getKey(), ex.getMessage()));
+                continue;
+            }
+
+            try {
+                List<Reservation> reservations = seatParty(slotsByTable, user, request.start(), request.start().plusMinutes(90), res_slots, request.guests());
+                List<Reservation> saved = reservationRepository.saveAll(reservations);
+
+                results.add(BatchReservationResult.booked(e.getKey(), saved.stream().map(Reservation::getId).toList()));
+                booked++;
+            } catch (NotEnoughCapacityException ex) {
+                //the batch commits anyway, so the entry is not undone by a rollback
+                userBookingIndex.remove(user.getId(), restaurantId, request.start());
+                results.add(BatchReservationResult.failed(e.getKey(), ex.getMessage()));
+            }
+        }
+
+        if (booked > 0) {
+            String msg = booked + " reservations have been booked from " + from.toLocalDate() + " to " + to.toLocalDate();
+            TransactionHooks.afterCommit(() -> notificationSocket.notifyRestaurant(restaurantId, msg));
+        }
+        return results;
+    }
+
+    /**
+     * Seats a party at tables whose timeslots are already locked by the caller.
+     *
+     * Nothing is changed if the party cannot be seated.
+     *
+     * @param slotsByTable Locked timeslots per table, possibly covering more than the window
+     * @param user User making the reservation
+     * @param start Start time of the reservation
+     * @param end End time of the reservation
+     * @param resSlots Number of timeslots a reservation needs
+     * @param guests Number of guests
+     * @return Unsaved reservations, one per table
+     * @throws NotEnoughCapacityException if there is insufficient capacity to accommodate all guests
+     */
+    private List<Reservation> seatParty(Map<RestaurantTable, List<Timeslot>> slotsByTable,
+                                        User user,
+                                        LocalDateTime start,
+                                        LocalDateTime end,
+                                        int resSlots,
+                                        int guests) {
+        Map<RestaurantTable, List<Timeslot>> windowSlots = new LinkedHashMap<>();
+        slotsByTable.forEach((table, slots) -> windowSlots.put(table, slots.stream()
+                .filter(s -> !s.getStartTime().isBefore(start) && !s.getEndTime().isAfter(end))
+                .toList()));
+
+        //only tables that are free for the whole window are offered to the allocator
+        List<RestaurantTable> availableTables = windowSlots.entrySet().stream()
+                .filter(e -> e.getValue().size() >= resSlots && e.getValue().stream().allMatch(s -> s.getUser() == null))
+                .map(Map.Entry::getKey)
+                .sorted(Comparator.comparing(RestaurantTable::getSize).thenComparing(RestaurantTable::getId))
+                .toList();
+
+        int[] sizes = availableTables.stream().mapToInt(RestaurantTable::getSize).toArray();
+        List<Integer> chosen = tableAllocator.allocate(sizes, guests);
+        if (chosen.isEmpty()) {
+            throw new NotEnoughCapacityException();
+        }
+        int[] seated = TableAllocator.seat(sizes, chosen, guests);
+
+        List<Reservation> reservations = new ArrayList<>();
+        for (int i = 0; i < chosen.size(); i++) {
+            RestaurantTable selectedTable = availableTables.get(chosen.get(i));
+            List<Timeslot> slots = windowSlots.get(selectedTable);
+
+            if (seated[i] > 0) {
+                //marked in memory as well, so later parties of the same caller skip this table
+                slots.forEach(s -> s.setUser(user));
+                //computed timeslots are transient, the reservation alone records the booking
+                if (!virtualTimeslots.isEnabled()) timeslotRepository.saveAll(slots);
+                occupancyIndex.markBooked(slots);
+
+                reservations.add(new Reservation(selectedTable, user, start, end, seated[i]));
+            }
+        }
+        return reservations;
+    }
+
+    /**
+     * Locks the timeslots of a restaurant within a range, ordered by table and start time.
+     *
+     * @param restaurantId ID of the restaurant
+     * @param from Start of the range
+     * @param to End of the range
+     * @return Stored timeslot rows, or transient computed slots in virtual mode
+     */
+    private List<Timeslot> lockSlots(Long restaurantId, LocalDateTime from, LocalDateTime to) {
+        if (virtualTimeslots.isEnabled()) return virtualTimeslots.slotsForUpdate(restaurantId, from, to);
+        return timeslotRepository.findRestaurantSlotsForUpdate(restaurantId, from, to);
+    }
+
+    /**
+     * Returns how long bookings waited for their timeslot locks.
+     *
+     * @return Number of bookings, average and maximum lock wait as String
+     */
+    public String getLockWaitStats() {
+        long count = lockedBookings.get();
+        long avgMicros = count == 0 ? 0 : lockWaitNanos.get() / count / 1000;
+        return "Bookings: " + count + "\n"
+                + "Avg lock wait: " + avgMicros + " us\n"
+                + "Max lock wait: " + maxLockWaitNanos.get() / 1000 + " us";
+    }
+
+    private void recordLockWait(long nanos) {
+        lockedBookings.incrementAndGet();
+        lockWaitNanos.addAndGet(nanos);
+        maxLockWaitNanos.accumulateAndGet(nanos, Math::max);
+        logger.debug("Booking waited {} us for timeslot locks", nanos / 1000);
+    }
+
     /**
      * Returns all reservations for a given user.
      *
@@ -295,9 +598,9 @@ public class ReservationService {
      *
      * @param restaurant Restaurant entity
      * @param date Date of interest
-     * @return List of reservations
+     * @return List of reservation projections
      */
-    public List<Reservation> findReservationsForRestaurant(Restaurant restaurant, LocalDate date) {
+    public List<ReservationView> findReservationsForRestaurant(Restaurant restaurant, LocalDate date) {
 
         if(restaurant == null) throw new NotFoundException("Restaurant not found");
 
@@ -313,12 +616,17 @@ public class ReservationService {
     /**
      * Deletes a specific reservation.
      *
+     * The freed timeslots are offered to the waitlist of the restaurant in the same transaction.
+     *
      * @param reservation Reservation entity to delete
      */
+    @Transactional
     public void deleteReservation(Reservation reservation) {
         if(reservation == null) return;
 
-        List<Timeslot> timeslots = timeslotRepository.findTimeslotsForReservation(reservation.getStartTime(), reservation.getEndTime(), reservation.getUser());
+        List<Timeslot> timeslots = virtualTimeslots.isEnabled()
+                ? virtualTimeslots.slotsOf(reservation)
+                : timeslotRepository.findTimeslotsForReservation(reservation.getRestaurantTable(), reservation.getStartTime(), reservation.getEndTime(), reservation.getUser());
         for (Timeslot t: timeslots) {
             t.setUser(null);
         }
@@ -327,6 +635,70 @@ public class ReservationService {
         notificationSocket.notifyChange(reservation, msg);
 
         reservationRepository.delete(reservation);
+        occupancyIndex.markFree(timeslots);
+        Long restaurantId = reservation.getRestaurantTable().getRestaurant().getId();
+        if (reservation.getUser() != null) {
+            userBookingIndex.removeIfCancelled(reservation.getUser().getId(), restaurantId, reservation.getStartTime());
+        }
+
+        assignWaitlist(restaurantId, reservation.getStartTime(), reservation.getEndTime());
+    }
+
+    /**
+     * Seats waiting parties whose window overlaps a freed range, in the caller's transaction.
+     *
+     * Queues are served by start time and, within a start time, first come first served. A party
+     * that does not fit stays on the waitlist; seated parties are removed from it after commit
+     * and notified through the restaurant subscribers.
+     *
+     * @param restaurantId ID of the restaurant
+     * @param freedStart Start of the freed range
+     * @param freedEnd End of the freed range
+     */
+    private void assignWaitlist(Long restaurantId, LocalDateTime freedStart, LocalDateTime freedEnd) {
+        List<WaitlistEntry> waiting = waitlist.waiting(restaurantId, freedStart.minusMinutes(90), freedEnd);
+        if (waiting.isEmpty()) return;
+
+        LocalDateTime from = waiting.getFirst().start();
+        LocalDateTime to = waiting.getLast().start().plusMinutes(90);
+
+        Map<RestaurantTable, List<Timeslot>> slotsByTable = lockSlots(restaurantId, from, to).stream()
+                .collect(Collectors.groupingBy(Timeslot::getTable, LinkedHashMap::new, Collectors.toList()));
+        int res_slots = restaurantRepository.getReferenceById(restaurantId).getTimeSlotDuration();
+
+        Map<Long, User> users = userRepository.findAllById(waiting.stream().map(WaitlistEntry::userId).distinct().toList())
+                .stream().collect(Collectors.toMap(User::getId, u -> u));
+
+        for (WaitlistEntry entry : waiting) {
+            User user = users.get(entry.userId());
+            if (user == null) {
+                TransactionHooks.afterCommit(() -> waitlist.remove(entry.id()));
+                continue;
+            }
+            try {
+                userBookingIndex.reserve(user.getId(), restaurantId, entry.start());
+            } catch (TooManyBookingsException e) {
+                //booked elsewhere in the meantime, the entry is no longer needed
+                TransactionHooks.afterCommit(() -> waitlist.remove(entry.id()));
+                continue;
+            }
+
+            try {
+                List<Reservation> saved = reservationRepository.saveAll(
+                        seatParty(slotsByTable, user, entry.start(), entry.start().plusMinutes(90), res_slots, entry.guests()));
+
+                TransactionHooks.afterCommit(() -> {
+                    waitlist.assigned(entry.id());
+                    for (Reservation r : saved) {
+                        notificationSocket.notifyChange(r, "Reservation for table " + r.getRestaurantTable().getId() + " has been booked from " + r.getStartTime() + " to " + r.getEndTime());
+                    }
+                    notificationSocket.notifyRestaurant(restaurantId, "Waitlist entry " + entry.id() + " of user " + entry.userId()
+                            + " has been assigned reservations " + saved.stream().map(Reservation::getId).toList() + " at " + entry.start());
+                });
+            } catch (NotEnoughCapacityException e) {
+                userBookingIndex.remove(user.getId(), restaurantId, entry.start());
+            }
+        }
     }
 
 
@@ -336,6 +708,7 @@ public class ReservationService {
      * @param userId ID of the user
      * @param date Date for which reservations should be deleted
      */
+    @Transactional
     public void deleteReservationUserDay(Long userId, LocalDate date) {
         List<Reservation> reservationsUser = reservationRepository.findReservationForUser(userRepository.getReferenceById(userId));
         for(Reservation r: reservationsUser) {
@@ -373,6 +746,8 @@ public class ReservationService {
         }
 
         reservationRepository.deleteAll();
+        occupancyIndex.invalidateAll();
+        userBookingIndex.clear();
         em.createNativeQuery("ALTER TABLE reservation ALTER COLUMN id RESTART WITH 1").executeUpdate();
     }
 
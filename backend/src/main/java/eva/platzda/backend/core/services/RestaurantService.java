@@ -1,5 +1,7 @@
 package eva.platzda.backend.core.services;
 
+import eva.platzda.backend.core.availability.CapacitySummaries;
+import eva.platzda.backend.core.availability.OccupancyIndex;
 import eva.platzda.backend.core.models.Restaurant;
 import eva.platzda.backend.core.repositories.RestaurantRepository;
 import jakarta.persistence.EntityManager;
@@ -17,11 +19,15 @@ import java.util.List;
 public class RestaurantService {
 
     private final RestaurantRepository restaurantRepository;
+    private final OccupancyIndex occupancyIndex;
+    private final CapacitySummaries capacitySummaries;
 
     private final EntityManager em;
 
-    public RestaurantService(RestaurantRepository restaurantRepository, EntityManager em) {
+    public RestaurantService(RestaurantRepository restaurantRepository, OccupancyIndex occupancyIndex, CapacitySummaries capacitySummaries, EntityManager em) {
         this.restaurantRepository = restaurantRepository;
+        this.occupancyIndex = occupancyIndex;
+        this.capacitySummaries = capacitySummaries;
         this.em = em;
     }
 
@@ -64,7 +70,9 @@ public class RestaurantService {
      */
     public Restaurant createRestaurant(Restaurant restaurant) {
         restaurant.setId(null);
-        return restaurantRepository.save(restaurant);
+        Restaurant saved = restaurantRepository.save(restaurant);
+        capacitySummaries.invalidate();
+        return saved;
     }
 
     /**
@@ -75,7 +83,10 @@ public class RestaurantService {
      * @return Updated Restaurant entity
      */
     public Restaurant updateRestaurant(Restaurant restaurant) {
-        return restaurantRepository.save(restaurant);
+        Restaurant saved = restaurantRepository.save(restaurant);
+        occupancyIndex.invalidate(saved.getId());
+        capacitySummaries.invalidate();
+        return saved;
     }
 
     /**
@@ -86,6 +97,8 @@ public class RestaurantService {
      */
     public void deleteRestaurantById(Long id) {
         restaurantRepository.deleteById(id);
+        occupancyIndex.invalidate(id);
+        capacitySummaries.invalidate();
     }
 
     /**
@@ -96,6 +109,8 @@ public class RestaurantService {
     @Transactional
     public void deleteAllRestaurants() {
         restaurantRepository.deleteAll();
+        occupancyIndex.invalidateAll();
+        capacitySummaries.invalidate();
         em.createNativeQuery("ALTER TABLE restaurant ALTER COLUMN id RESTART WITH 1").executeUpdate();
     }
 
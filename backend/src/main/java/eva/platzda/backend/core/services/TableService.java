@@ -1,5 +1,7 @@
 package eva.platzda.backend.core.services;
 
+import eva.platzda.backend.core.availability.CapacitySummaries;
+import eva.platzda.backend.core.availability.OccupancyIndex;
 import eva.platzda.backend.core.models.RestaurantTable;
 import eva.platzda.backend.core.repositories.TableRepository;
 import jakarta.persistence.EntityManager;
@@ -20,6 +22,8 @@ public class TableService {
 
     private final TableRepository tableRepository;
     private final TimeslotGenerationService timeslotGenerationService;
+    private final OccupancyIndex occupancyIndex;
+    private final CapacitySummaries capacitySummaries;
 
     private final EntityManager em;
     /**
@@ -28,9 +32,13 @@ public class TableService {
      */
     public TableService(TableRepository tableRepository,
                         TimeslotGenerationService timeslotGenerationService,
+                        OccupancyIndex occupancyIndex,
+                        CapacitySummaries capacitySummaries,
                         EntityManager em) {
         this.tableRepository = tableRepository;
         this.timeslotGenerationService = timeslotGenerationService;
+        this.occupancyIndex = occupancyIndex;
+        this.capacitySummaries = capacitySummaries;
         this.em = em;
     }
 
@@ -72,6 +80,8 @@ public class TableService {
         for (int i = 0; i <= timeslotGenerationService.getPregeneratedWeeks()*7; i++){
             timeslotGenerationService.connectTimeslotsTable(LocalDate.now().plusDays(i), created);
         }
+        occupancyIndex.invalidate(created.getRestaurant().getId());
+        capacitySummaries.invalidate();
         return created;
     }
 
@@ -82,7 +92,12 @@ public class TableService {
      * @return The updated RestaurantTable entity
      */
     @Transactional
-    public RestaurantTable updateTable(RestaurantTable table) {return tableRepository.save(table);}
+    public RestaurantTable updateTable(RestaurantTable table) {
+        RestaurantTable saved = tableRepository.save(table);
+        occupancyIndex.invalidate(saved.getRestaurant().getId());
+        capacitySummaries.invalidate();
+        return saved;
+    }
 
     /**
      * Deletes a table by its ID.
@@ -90,7 +105,11 @@ public class TableService {
      * @param id ID of the table to delete
      */
     @Transactional
-    public void deleteTable(Long id) {tableRepository.deleteById(id);}
+    public void deleteTable(Long id) {
+        tableRepository.findById(id).ifPresent(t -> occupancyIndex.invalidate(t.getRestaurant().getId()));
+        tableRepository.deleteById(id);
+        capacitySummaries.invalidate();
+    }
 
 
     /**
@@ -101,6 +120,8 @@ public class TableService {
     @Transactional
     public void deleteTablesOfRestaurant(Long restaurantId) {
         tableRepository.deleteByRestaurantId(restaurantId);
+        occupancyIndex.invalidate(restaurantId);
+        capacitySummaries.invalidate();
     }
 
 
@@ -110,6 +131,8 @@ public class TableService {
     @Transactional
     public void deleteAll() {
         tableRepository.deleteAll();
+        occupancyIndex.invalidateAll();
+        capacitySummaries.invalidate();
         em.createNativeQuery("ALTER TABLE restaurant_table ALTER COLUMN id RESTART WITH 1").executeUpdate();
     }
 }
@@ -1,5 +1,7 @@
 package eva.platzda.backend.core.services;
 
+import eva.platzda.backend.core.availability.OccupancyIndex;
+import eva.platzda.backend.core.availability.VirtualTimeslots;
 import eva.platzda.backend.core.models.OpeningHours;
 import eva.platzda.backend.core.models.Restaurant;
 import eva.platzda.backend.core.models.RestaurantTable;
@@ -7,16 +9,28 @@ import eva.platzda.backend.core.models.Timeslot;
 import eva.platzda.backend.core.repositories.HoursRepository;
 import eva.platzda.backend.core.repositories.TableRepository;
 import eva.platzda.backend.core.repositories.TimeslotRepository;
+import eva.platzda.backend.core.repositories.projections.TimeslotView;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.LocalTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 /**
@@ -24,41 +38,151 @@ import java.util.stream.Collectors;
  *
  * Creates timeslots for tables based on restaurant opening hours,
  * and deletes outdated timeslots. Supports scheduled and manual generation.
+ * Restaurants are published in parallel on the {@code timeslotExecutor} pool.
+ * With {@code platzda.timeslots.hot-days} set, only that many days are published ahead;
+ * later days are materialized per restaurant the first time they are read or booked.
+ * With {@code platzda.timeslots.mode=virtual} no rows are written; the timeslots
+ * are computed by {@link VirtualTimeslots} instead.
  */
 @Service
 public class TimeslotGenerationService {
 
+    private static final Logger logger = LoggerFactory.getLogger(TimeslotGenerationService.class);
+
     private final TimeslotService timeslotService;
     private final RestaurantService restaurantService;
     private final TimeslotRepository timeslotRepository;
-    private final int WEEKS_PREGENERATED = 8;
+    public static final int WEEKS_PREGENERATED = 8;
 
     private final TableRepository tableRepository;
     private final HoursRepository hoursRepository;
+    private final OccupancyIndex occupancyIndex;
+    private final VirtualTimeslots virtualTimeslots;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager em;
+    private final int batchSize;
+    private final ThreadPoolTaskExecutor executor;
+    private final int retries;
+    private final int hotDays;
+    private final TransactionTemplate ownTransaction;
+
+    //once-only guard of generated days shared by publishing and lazy materialization, completed futures mark finished days
+    private final Map<RestaurantDay, CompletableFuture<Void>> materialized = new ConcurrentHashMap<>();
+    private final AtomicLong lazyDays = new AtomicLong();
+    private final AtomicLong lazyRows = new AtomicLong();
+
+    private final AtomicInteger restaurantsTotal = new AtomicInteger();
+    private final AtomicInteger restaurantsDone = new AtomicInteger();
+    private final AtomicInteger restaurantsFailed = new AtomicInteger();
+    private final AtomicInteger restaurantsRetried = new AtomicInteger();
+    private final AtomicLong rowsWritten = new AtomicLong();
+    private volatile long runStartMillis;
+    private volatile long runEndMillis;
 
 
     @Autowired
-    public TimeslotGenerationService(TimeslotService timeslotService, RestaurantService restaurantService, TimeslotRepository timeslotRepository, TableRepository tableRepository, HoursRepository hoursRepository) {
+    public TimeslotGenerationService(TimeslotService timeslotService, RestaurantService restaurantService, TimeslotRepository timeslotRepository, TableRepository tableRepository, HoursRepository hoursRepository, OccupancyIndex occupancyIndex, VirtualTimeslots virtualTimeslots,
+                                     TransactionTemplate transactionTemplate, EntityManager em, @Value("${platzda.timeslots.batch-size:500}") int batchSize,
+                                     @Qualifier("timeslotExecutor") ThreadPoolTaskExecutor executor, @Value("${platzda.timeslots.publish-retries:3}") int retries,
+                                     @Value("${platzda.timeslots.hot-days:0}") int hotDays, @Value("${platzda.booking.mode:locking}") String bookingMode) {
+        if (hotDays > 0 && "lock-free".equalsIgnoreCase(bookingMode)) {
+            //the claim boards are loaded for the whole horizon at startup and never see later rows
+            throw new IllegalStateException("platzda.timeslots.hot-days requires platzda.booking.mode=locking");
+        }
         this.timeslotService = timeslotService;
         this.restaurantService = restaurantService;
         this.timeslotRepository = timeslotRepository;
         this.tableRepository = tableRepository;
         this.hoursRepository = hoursRepository;
+        this.occupancyIndex = occupancyIndex;
+        this.virtualTimeslots = virtualTimeslots;
+        this.transactionTemplate = transactionTemplate;
+        this.em = em;
+        this.batchSize = batchSize;
+        this.executor = executor;
+        this.retries = retries;
+        this.hotDays = hotDays;
+        this.ownTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.ownTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
     }
 
     public int getPregeneratedWeeks() {
         return WEEKS_PREGENERATED;
     }
 
+    /**
+     * Returns the last date that is published ahead: the hot horizon if days are
+     * materialized lazily, the full pregenerated weeks otherwise.
+     *
+     * @return Last date generated by publishing
+     */
+    public LocalDate getPublishHorizon() {
+        return isLazy() ? LocalDate.now().plusDays(hotDays) : LocalDate.now().plusWeeks(WEEKS_PREGENERATED);
+    }
+
+    /**
+     * Makes sure the timeslots of a restaurant day within the pregenerated weeks exist.
+     *
+     * The first caller of a day generates it in a transaction of its own, so the rows are
+     * visible to the caller's locking query; concurrent callers of the same day, including a
+     * publishing run, wait for it. Days published before are found in the guard and return
+     * at once, a hot day that was not published yet is generated like a cold one.
+     *
+     * @param restaurantId ID of the restaurant
+     * @param day Date that is about to be read or booked
+     */
+    public void ensureMaterialized(Long restaurantId, LocalDate day) {
+        if (!isLazy() || day.isBefore(LocalDate.now()) || day.isAfter(LocalDate.now().plusWeeks(WEEKS_PREGENERATED))) return;
+
+        RestaurantDay key = new RestaurantDay(restaurantId, day);
+        CompletableFuture<Void> mine = new CompletableFuture<>();
+        CompletableFuture<Void> running = materialized.putIfAbsent(key, mine);
+        if (running != null) {
+            running.join();
+            return;
+        }
+
+        try {
+            Integer rows = ownTransaction.execute(status -> {
+                int written = writeTimeslots(restaurantId, List.of(day));
+                if (written > 0) occupancyIndex.invalidate(restaurantId, day);
+                return written;
+            });
+            lazyDays.incrementAndGet();
+            lazyRows.addAndGet(rows == null ? 0 : rows);
+            mine.complete(null);
+        } catch (RuntimeException e) {
+            materialized.remove(key, mine);
+            mine.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Makes sure a day within the pregenerated weeks exists for several restaurants.
+     *
+     * @param restaurantIds IDs of the restaurants
+     * @param day Date that is about to be read or booked
+     */
+    public void ensureMaterialized(Collection<Long> restaurantIds, LocalDate day) {
+        if (!isLazy()) return;
+        restaurantIds.forEach(id -> ensureMaterialized(id, day));
+    }
+
+    private boolean isLazy() {
+        return hotDays > 0 && hotDays < WEEKS_PREGENERATED * 7 && !virtualTimeslots.isEnabled();
+    }
+
     /**
      * Scheduled task to publish timeslots automatically.
      *
-     * Runs daily at 1:00 AM and generates timeslots for restaurants
-     * two weeks in advance.
+     * Runs daily at midnight and generates timeslots for restaurants
+     * up to the publish horizon, so the day that just entered it is there right away.
      */
-    @Scheduled(cron = "0 0 1 * * *")
+    @Scheduled(cron = "0 0 0 * * *")
     public void publishTimeslotsScheduled() {
-        publishTimeslots(LocalDate.now().plusWeeks(WEEKS_PREGENERATED));
+        materialized.keySet().removeIf(k -> k.day().isBefore(LocalDate.now()));
+        publishTimeslots(getPublishHorizon());
     }
 
     /**
@@ -70,22 +194,162 @@ public class TimeslotGenerationService {
      * @param targetDate Date for which to generate timeslots
      */
     public void publishTimeslots(LocalDate targetDate) {
+        publishTimeslots(targetDate, targetDate);
+    }
 
-        List<Restaurant> allRestaurants = restaurantService.findAllRestaurants();
-        for(Restaurant r: allRestaurants) {
-            List<Timeslot> slots = createTimeslots(r, targetDate);
-            for(Timeslot s: slots) {
-                for(RestaurantTable t: tableRepository.findByRestaurantId(r.getId())) {
-                    Timeslot saved = new Timeslot(t, s.getStartTime(), s.getEndTime(), null);
-                    timeslotRepository.saveAndFlush(saved);
+    /**
+     * Publishes timeslots for all restaurants for every date from first to last (inclusive).
+     *
+     * Restaurants are generated in parallel on a bounded pool, each in one pass in its own
+     * transaction: tables and opening hours are read once, and the rows are inserted in JDBC
+     * batches, flushing and clearing the persistence context after every chunk. A restaurant
+     * that fails is retried on its own; the others are not affected. Progress is logged and
+     * available through {@link #getPublishProgress()}. Outdated timeslots are removed separately
+     * by {@link TimeslotRetentionService}.
+     *
+     * @param first First date to generate
+     * @param last Last date to generate
+     */
+    public synchronized void publishTimeslots(LocalDate first, LocalDate last) {
+        if (virtualTimeslots.isEnabled()) {
+            occupancyIndex.evictBefore(LocalDate.now().minusDays(1));
+            return;
+        }
+
+        List<Long> restaurantIds = restaurantService.findAllRestaurants().stream().map(Restaurant::getId).toList();
+        restaurantsTotal.set(restaurantIds.size());
+        restaurantsDone.set(0);
+        restaurantsFailed.set(0);
+        restaurantsRetried.set(0);
+        rowsWritten.set(0);
+        runStartMillis = System.currentTimeMillis();
+        runEndMillis = 0;
+
+        //log roughly every tenth of the run
+        int reportEvery = Math.max(1, restaurantIds.size() / 10);
+
+        List<CompletableFuture<Void>> runs = new ArrayList<>();
+        for (Long restaurantId : restaurantIds) {
+            runs.add(CompletableFuture.runAsync(() -> {
+                publishRestaurant(restaurantId, first, last);
+                if (restaurantsDone.incrementAndGet() % reportEvery == 0) logger.info("Publishing timeslots: {}", progressLine());
+            }, executor));
+        }
+        CompletableFuture.allOf(runs.toArray(CompletableFuture[]::new)).join();
+        runEndMillis = System.currentTimeMillis();
+
+        logger.info("Published timeslots from {} to {}: {}", first, last, progressLine());
+    }
+
+    /**
+     * Returns the progress of the current or last publishing run.
+     *
+     * @return Restaurants done, failed and retried, rows written and rows per second as String
+     */
+    public String getPublishProgress() {
+        return "Running: " + (runStartMillis != 0 && runEndMillis == 0) + "\n" + progressLine().replace(", ", "\n") + "\n"
+                + "Publish horizon: " + getPublishHorizon() + (isLazy() ? " (later days on demand)" : "") + "\n"
+                + "Days materialized on demand: " + lazyDays.get() + "\n"
+                + "Rows materialized on demand: " + lazyRows.get();
+    }
+
+    private void publishRestaurant(Long restaurantId, LocalDate first, LocalDate last) {
+        for (int attempt = 1; ; attempt++) {
+            //days claimed by a lazy caller are generated there
+            Map<LocalDate, CompletableFuture<Void>> claimed = claimDays(restaurantId, first, last);
+            try {
+                Integer rows = transactionTemplate.execute(status -> writeTimeslots(restaurantId, claimed.keySet()));
+                rowsWritten.addAndGet(rows == null ? 0 : rows);
+                claimed.keySet().forEach(d -> occupancyIndex.invalidate(restaurantId, d));
+                releaseDays(restaurantId, claimed, null);
+                return;
+            } catch (RuntimeException e) {
+                releaseDays(restaurantId, claimed, e);
+                if (attempt > retries) {
+                    restaurantsFailed.incrementAndGet();
+                    logger.error("Publishing timeslots for restaurant {} failed after {} attempts: {}", restaurantId, attempt, e.getMessage());
+                    return;
                 }
+                restaurantsRetried.incrementAndGet();
+                logger.warn("Publishing timeslots for restaurant {} failed, retrying: {}", restaurantId, e.getMessage());
             }
         }
+    }
+
+    private Map<LocalDate, CompletableFuture<Void>> claimDays(Long restaurantId, LocalDate first, LocalDate last) {
+        Map<LocalDate, CompletableFuture<Void>> claimed = new TreeMap<>();
+        for (LocalDate d = first; !d.isAfter(last); d = d.plusDays(1)) {
+            CompletableFuture<Void> mine = new CompletableFuture<>();
+            //without lazy days nothing else generates timeslots, the guard is not needed
+            if (!isLazy() || materialized.putIfAbsent(new RestaurantDay(restaurantId, d), mine) == null) claimed.put(d, mine);
+        }
+        return claimed;
+    }
+
+    private void releaseDays(Long restaurantId, Map<LocalDate, CompletableFuture<Void>> claimed, RuntimeException failure) {
+        claimed.forEach((day, mine) -> {
+            if (failure == null) {
+                mine.complete(null);
+                return;
+            }
+            materialized.remove(new RestaurantDay(restaurantId, day), mine);
+            mine.completeExceptionally(failure);
+        });
+    }
+
+    private String progressLine() {
+        long end = runEndMillis == 0 ? System.currentTimeMillis() : runEndMillis;
+        long millis = Math.max(1, end - runStartMillis);
+        long rows = rowsWritten.get();
+        return "Restaurants: " + restaurantsDone.get() + "/" + restaurantsTotal.get()
+                + ", Failed: " + restaurantsFailed.get()
+                + ", Retried: " + restaurantsRetried.get()
+                + ", Rows written: " + rows
+                + ", Rows/sec: " + rows * 1000 / millis
+                + ", Elapsed: " + millis + " ms";
+    }
 
-        timeslotService.deleteTimeslotsBeforeDate(LocalDate.now().minusDays(1));
+    private int writeTimeslots(Long restaurantId, Collection<LocalDate> days) {
+        if (days.isEmpty()) return 0;
+        List<RestaurantTable> tables = tableRepository.findByRestaurantId(restaurantId);
+        if (tables.isEmpty()) return 0;
+
+        //days generated before, e.g. by an earlier run, are not written twice
+        LocalDate first = Collections.min(days);
+        LocalDate last = Collections.max(days);
+        Set<LocalDate> existing = new HashSet<>(timeslotRepository.findMaterializedDays(restaurantId,
+                first.atStartOfDay(), last.plusDays(1).atStartOfDay()));
+
+        Map<Integer, List<OpeningHours>> hoursByWeekday = hoursRepository.findByRestaurantId(restaurantId).stream()
+                .collect(Collectors.groupingBy(OpeningHours::getWeekday));
+
+        int written = 0;
+        for (LocalDate date : days) {
+            if (existing.contains(date)) continue;
+            for (OpeningHours oh : hoursByWeekday.getOrDefault(date.getDayOfWeek().getValue(), Collections.emptyList())) {
+                for (LocalDateTime start : generateStartsForOpening(date, oh)) {
+                    for (RestaurantTable table : tables) {
+                        em.persist(new Timeslot(table, start, start.plusMinutes(15), null));
+                        if (++written % batchSize == 0) {
+                            em.flush();
+                            em.clear();
+                        }
+                    }
+                }
+            }
+        }
+        em.flush();
+        em.clear();
+        return written;
     }
 
     public void connectTimeslotsTable(LocalDate targetDate, RestaurantTable table){
+        if (virtualTimeslots.isEnabled()) return;
+        if (isLazy() && targetDate.isAfter(LocalDate.now().plusDays(hotDays)) && !isMaterialized(table.getRestaurant().getId(), targetDate)) {
+            //the day is generated with all tables when it is first touched
+            return;
+        }
+
         List<Timeslot> slots = createTimeslots(table.getRestaurant(), targetDate);
         for(Timeslot s: slots) {
             Timeslot saved = new Timeslot(table, s.getStartTime(), s.getEndTime(), null );
@@ -97,6 +361,7 @@ public class TimeslotGenerationService {
      * Creates timeslots for a single restaurant on a given date.
      *
      * Generates 15-minute interval timeslots between opening and closing times.
+     * Opening times are aligned to quarter-hours, like in {@link #updateTimeslots(Restaurant)}.
      *
      * @param r Restaurant for which timeslots should be created
      * @param date Date for the timeslots
@@ -112,7 +377,7 @@ public class TimeslotGenerationService {
         }
 
         for(OpeningHours hours : allHours) {
-            LocalDateTime current = LocalDateTime.of(date, hours.getOpeningTime());
+            LocalDateTime current = LocalDateTime.of(date, VirtualTimeslots.alignToQuarter(hours.getOpeningTime()));
             LocalDateTime closingTime = LocalDateTime.of(date, hours.getClosingTime());
             while (current.isBefore(closingTime)) {
                 LocalDateTime next = current.plusMinutes(15);
@@ -129,134 +394,113 @@ public class TimeslotGenerationService {
 
     /**
      *
-     * Adds or removes timeslots for updated opening hours.
+     * Adds or removes timeslots for updated opening hours on every weekday.
      * Won't affect timeslots booked by users
      *
      * @param restaurant Restaurant with new opening hours.
      */
     @Transactional
     public void updateTimeslots(Restaurant restaurant) {
-        Objects.requireNonNull(restaurant, "restaurant must not be null");
-
-        List<OpeningHours> openingHours = hoursRepository.findByRestaurantId(restaurant.getId());
-        List<Timeslot> existingSlots = timeslotRepository.findByRestaurantId(restaurant.getId());
-        List<RestaurantTable> tables = tableRepository.findByRestaurantId(restaurant.getId());
+        updateTimeslots(restaurant, List.of(1, 2, 3, 4, 5, 6, 7));
+    }
 
-        if (tables.isEmpty()) {
+    /**
+     *
+     * Adds or removes timeslots for updated opening hours, limited to the dates from today
+     * up to the pregenerated horizon that fall on one of the given weekdays. Each date is
+     * read with a range query and the difference is applied with batched inserts and
+     * bulk deletes. Won't affect timeslots booked by users
+     *
+     * @param restaurant Restaurant with new opening hours.
+     * @param weekdays Edited weekdays (1 = Monday, 7 = Sunday)
+     */
+    @Transactional
+    public void updateTimeslots(Restaurant restaurant, Collection<Integer> weekdays) {
+        Objects.requireNonNull(restaurant, "restaurant must not be null");
+        Long restaurantId = restaurant.getId();
+        if (virtualTimeslots.isEnabled()) {
+            //computed timeslots follow the opening hours by themselves
+            occupancyIndex.invalidate(restaurantId);
             return;
         }
 
-        LocalDate today = LocalDate.now();
-        LocalDate minDate = existingSlots.stream()
-                .map(ts -> ts.getStartTime().toLocalDate())
-                .min(Comparator.naturalOrder())
-                .orElse(today);
-
-        LocalDate startDate = minDate.isBefore(today) ? minDate : today;
-        LocalDate endDate = today.plusDays(WEEKS_PREGENERATED*7);
+        List<RestaurantTable> tables = tableRepository.findByRestaurantId(restaurantId);
+        if (tables.isEmpty() || weekdays.isEmpty()) {
+            return;
+        }
 
         //Map weekday -> OpeningHours (for multiple entries per weekday)
-        Map<Integer, List<OpeningHours>> ohByWeekday = openingHours.stream()
+        Map<Integer, List<OpeningHours>> ohByWeekday = hoursRepository.findByRestaurantId(restaurantId).stream()
                 .collect(Collectors.groupingBy(OpeningHours::getWeekday));
+        Map<Long, RestaurantTable> tablesById = tables.stream()
+                .collect(Collectors.toMap(RestaurantTable::getId, t -> t));
+
+        LocalDate today = LocalDate.now();
+        LocalDate endDate = today.plusDays(WEEKS_PREGENERATED*7);
 
-        //Build expected start times per date (same for all tables)
-        Set<LocalDateTime> expectedStarts = new HashSet<>();
-        for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+        List<Long> toDelete = new ArrayList<>();
+        int created = 0;
+        for (LocalDate date = today; !date.isAfter(endDate); date = date.plusDays(1)) {
             int weekday = date.getDayOfWeek().getValue(); //Monday=1 ... Sunday=7
-            List<OpeningHours> ohList = ohByWeekday.getOrDefault(weekday, Collections.emptyList());
-            for (OpeningHours oh : ohList) {
-                List<LocalDateTime> starts = generateStartsForOpening(date, oh);
-                expectedStarts.addAll(starts);
+            if (!weekdays.contains(weekday)) continue;
+            if (isLazy() && date.isAfter(today.plusDays(hotDays)) && !isMaterialized(restaurantId, date)) {
+                //not generated yet, it will follow the new hours when first touched
+                continue;
             }
-        }
 
-        //Index existing slots
-        Map<Long, Map<LocalDateTime, Timeslot>> existingByTable = new HashMap<>();
-        for (RestaurantTable table : tables) {
-            existingByTable.put(table.getId(), new HashMap<>());
-        }
-        for (Timeslot ts : existingSlots) {
-            if (ts.getTable() == null || ts.getStartTime() == null) continue;
-            Long tableId = ts.getTable().getId();
-            if (!existingByTable.containsKey(tableId)) continue;
-            existingByTable.get(tableId).put(ts.getStartTime(), ts);
-        }
-
-        List<Timeslot> toCreate = new ArrayList<>();
-        List<Timeslot> toDelete = new ArrayList<>();
-
-        //Compare expected vs existing starts
-        for (RestaurantTable table : tables) {
-            Map<LocalDateTime, Timeslot> existingForTable = existingByTable.getOrDefault(table.getId(), Collections.emptyMap());
+            //Expected start times of this date (same for all tables)
+            Set<LocalDateTime> expectedStarts = new HashSet<>();
+            for (OpeningHours oh : ohByWeekday.getOrDefault(weekday, Collections.emptyList())) {
+                expectedStarts.addAll(generateStartsForOpening(date, oh));
+            }
 
-            //Create missing starts
-            for (LocalDateTime start : expectedStarts) {
-                if (!existingForTable.containsKey(start)) {
-                    Timeslot newTs = new Timeslot();
-                    newTs.setTable(table);
-                    newTs.setStartTime(start);
-                    newTs.setEndTime(start.plusMinutes(15));
-                    newTs.setUser(null);
-                    toCreate.add(newTs);
+            Map<Long, Set<LocalDateTime>> existingByTable = new HashMap<>();
+            for (TimeslotView ts : timeslotRepository.findViewsForRestaurant(restaurantId, date.atStartOfDay(), date.plusDays(1).atStartOfDay())) {
+                if (ts.tableId() == null || ts.startTime() == null) continue;
+                existingByTable.computeIfAbsent(ts.tableId(), id -> new HashSet<>()).add(ts.startTime());
+                //Not deleting if slot is booked
+                if (!expectedStarts.contains(ts.startTime()) && ts.userId() == null) {
+                    toDelete.add(ts.id());
                 }
             }
 
-            //Deleting slots not within opening hours
-            for (Map.Entry<LocalDateTime, Timeslot> entry : existingForTable.entrySet()) {
-                LocalDateTime start = entry.getKey();
-                Timeslot ts = entry.getValue();
-                if (!expectedStarts.contains(start)) {
-                    //Not deleting if slot is booked
-                    if (ts.getUser() == null) {
-                        toDelete.add(ts);
-                    }
+            //Create missing starts
+            for (RestaurantTable table : tablesById.values()) {
+                Set<LocalDateTime> existingForTable = existingByTable.getOrDefault(table.getId(), Collections.emptySet());
+                for (LocalDateTime start : expectedStarts) {
+                    if (existingForTable.contains(start)) continue;
+                    em.persist(new Timeslot(table, start, start.plusMinutes(15), null));
+                    if (++created % batchSize == 0) em.flush();
                 }
             }
+            occupancyIndex.invalidate(restaurantId, date);
         }
 
-        // Persist
-        if (!toDelete.isEmpty()) {
-            timeslotRepository.deleteAll(toDelete);
-        }
-        if (!toCreate.isEmpty()) {
-            timeslotRepository.saveAll(toCreate);
+        for (int i = 0; i < toDelete.size(); i += batchSize) {
+            timeslotRepository.deleteFreeByIds(toDelete.subList(i, Math.min(i + batchSize, toDelete.size())));
         }
+        em.flush();
+        logger.debug("Reconciled timeslots of restaurant {} for weekdays {}: {} created, {} deleted",
+                restaurantId, weekdays, created, toDelete.size());
+    }
+
+    private boolean isMaterialized(Long restaurantId, LocalDate day) {
+        if (!timeslotRepository.findMaterializedDays(restaurantId, day.atStartOfDay(), day.plusDays(1).atStartOfDay()).isEmpty()) return true;
+        //a day generated without rows, e.g. while closed, is generated again with the current hours;
+        //a day still being generated keeps its guard so it is not written twice
+        materialized.computeIfPresent(new RestaurantDay(restaurantId, day), (key, running) -> running.isDone() ? null : running);
+        return false;
     }
 
+    private record RestaurantDay(Long restaurantId, LocalDate day) {}
+
     /**
      *
      * Generates Opening-Hours-Interval for a date in quarter-hour slots
      *
      */
     private List<LocalDateTime> generateStartsForOpening(LocalDate date, OpeningHours oh) {
-        List<LocalDateTime> result = new ArrayList<>();
-        LocalTime open = oh.getOpeningTime();
-        LocalTime close = oh.getClosingTime();
-
-        if (open == null || close == null) return result;
-
         // Wenn close <= open => kein Intervall (oder ggf. über Mitternacht nicht unterstützt)
-        if (!close.isAfter(open)) {
-            return result;
-        }
-
-        //catching cases where times are not quarter-hours
-        LocalTime cursor = alignToQuarter(open);
-        LocalDateTime dtCursor = LocalDateTime.of(date, cursor);
-        LocalDateTime dtClose = LocalDateTime.of(date, close);
-
-        while (!dtCursor.plusMinutes(15).isAfter(dtClose)) { //ensure slot fits
-            result.add(dtCursor);
-            dtCursor = dtCursor.plusMinutes(15);
-        }
-        return result;
-    }
-
-    private LocalTime alignToQuarter(LocalTime t) {
-        int minute = t.getMinute();
-        int quarters = (minute + 7) / 15;
-        int aligned = quarters * 15;
-        if (aligned >= 60) aligned = 45; //Fallback
-        return LocalTime.of(t.getHour(), aligned, 0);
+        return VirtualTimeslots.quarterStarts(date, oh.getOpeningTime(), oh.getClosingTime());
     }
 }
@@ -0,0 +1,106 @@
+package eva.platzda.backend.core.services;
+
+import eva.platzda.backend.core.availability.OccupancyIndex;
+import eva.platzda.backend.core.repositories.TimeslotRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Removes past timeslots.
+ *
+ * Runs on a schedule, off the request path, and deletes the rows that start before the
+ * retention window with bulk DELETE statements by start time. Each chunk is committed on
+ * its own, so a large backlog never holds one long transaction.
+ */
+@Service
+public class TimeslotRetentionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TimeslotRetentionService.class);
+
+    private final TimeslotRepository timeslotRepository;
+    private final OccupancyIndex occupancyIndex;
+    private final TransactionTemplate transactionTemplate;
+    private final int retentionDays;
+    private final int chunkSize;
+
+    private final AtomicLong runs = new AtomicLong();
+    private final AtomicLong totalRemoved = new AtomicLong();
+    private volatile LocalDate lastCutoff;
+    private volatile long lastRemoved;
+    private volatile long lastChunks;
+    private volatile long lastMillis;
+
+    @Autowired
+    public TimeslotRetentionService(TimeslotRepository timeslotRepository,
+                                    OccupancyIndex occupancyIndex,
+                                    TransactionTemplate transactionTemplate,
+                                    @Value("${platzda.timeslots.retention-days:1}") int retentionDays,
+                                    @Value("${platzda.timeslots.retention-chunk-size:5000}") int chunkSize) {
+        this.timeslotRepository = timeslotRepository;
+        this.occupancyIndex = occupancyIndex;
+        this.transactionTemplate = transactionTemplate;
+        this.retentionDays = retentionDays;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Scheduled task to remove timeslots older than the retention window.
+     */
+    @Scheduled(cron = "${platzda.timeslots.retention-cron:0 30 1 * * *}")
+    public void purgeScheduled() {
+        deleteTimeslotsBeforeDate(LocalDate.now().minusDays(retentionDays));
+    }
+
+    /**
+     * Deletes all timeslots that start before a specified date, chunk by chunk.
+     *
+     * @param date LocalDate; timeslots starting before this date will be removed
+     * @return Number of removed timeslots
+     */
+    public synchronized long deleteTimeslotsBeforeDate(LocalDate date) {
+        long begin = System.currentTimeMillis();
+        long removed = 0;
+        long chunks = 0;
+        while (true) {
+            Integer deleted = transactionTemplate.execute(status -> timeslotRepository.deleteStartingBefore(date.atStartOfDay(), chunkSize));
+            int n = deleted == null ? 0 : deleted;
+            removed += n;
+            if (n > 0) chunks++;
+            if (n < chunkSize) break;
+        }
+        occupancyIndex.evictBefore(date);
+
+        lastCutoff = date;
+        lastRemoved = removed;
+        lastChunks = chunks;
+        lastMillis = System.currentTimeMillis() - begin;
+        runs.incrementAndGet();
+        totalRemoved.addAndGet(removed);
+        if (removed > 0) logger.info("Removed {} timeslots before {} in {} chunks, {} ms", removed, date, chunks, lastMillis);
+        return removed;
+    }
+
+    /**
+     * Returns the retention statistics.
+     *
+     * @return Retention window, rows removed and time taken by the last run as String
+     */
+    public String getStats() {
+        return "Retention days: " + retentionDays + "\n"
+                + "Chunk size: " + chunkSize + "\n"
+                + "Runs: " + runs.get() + "\n"
+                + "Total removed: " + totalRemoved.get() + "\n"
+                + "Last cutoff: " + lastCutoff + "\n"
+                + "Last removed: " + lastRemoved + "\n"
+                + "Last chunks: " + lastChunks + "\n"
+                + "Last run: " + lastMillis + " ms";
+    }
+}
@@ -1,8 +1,12 @@
 package eva.platzda.backend.core.services;
 
 
+import eva.platzda.backend.core.availability.VirtualTimeslots;
+import eva.platzda.backend.core.models.Restaurant;
 import eva.platzda.backend.core.models.Timeslot;
+import eva.platzda.backend.core.repositories.RestaurantRepository;
 import eva.platzda.backend.core.repositories.TimeslotRepository;
+import eva.platzda.backend.core.repositories.projections.TimeslotView;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -13,21 +17,28 @@ import java.util.List;
  * Service for managing Timeslot entities.
  *
  * Provides methods to create, read, update, and delete timeslots,
- * as well as utility functions for filtering free or outdated timeslots.
+ * as well as utility functions for filtering free timeslots. Outdated timeslots
+ * are removed by {@link TimeslotRetentionService}.
  */
 @Service
 public class TimeslotService {
 
     private final TimeslotRepository timeslotRepository;
+    private final RestaurantRepository restaurantRepository;
+    private final VirtualTimeslots virtualTimeslots;
 
     /**
-     * Constructs a new TimeslotService with the given repository.
+     * Constructs a new TimeslotService with the given repositories.
      *
      * @param timeslotRepository Repository for Timeslot entities
+     * @param restaurantRepository Repository for Restaurant entities
+     * @param virtualTimeslots Computed timeslots, used instead of the repository in virtual mode
      */
     @Autowired
-    public TimeslotService(TimeslotRepository timeslotRepository) {
+    public TimeslotService(TimeslotRepository timeslotRepository, RestaurantRepository restaurantRepository, VirtualTimeslots virtualTimeslots) {
         this.timeslotRepository = timeslotRepository;
+        this.restaurantRepository = restaurantRepository;
+        this.virtualTimeslots = virtualTimeslots;
     }
 
     /**
@@ -37,6 +48,22 @@ public class TimeslotService {
      */
     public List<Timeslot> findAllTimeslots(){return timeslotRepository.findAll();}
 
+    /**
+     * Returns all timeslots as read-only projections.
+     *
+     * In virtual mode the timeslots of the pregenerated horizon are computed and carry no ID.
+     *
+     * @return List of all timeslots with their links flattened to IDs
+     */
+    public List<TimeslotView> findAllTimeslotViews(){
+        if (!virtualTimeslots.isEnabled()) return timeslotRepository.findAllViews();
+
+        LocalDate today = LocalDate.now();
+        List<Long> restaurantIds = restaurantRepository.findAll().stream().map(Restaurant::getId).toList();
+        return virtualTimeslots.views(restaurantIds, today.atStartOfDay(),
+                today.plusWeeks(TimeslotGenerationService.WEEKS_PREGENERATED).plusDays(1).atStartOfDay());
+    }
+
     /**
      * Returns all free timeslots that are not assigned to any user.
      *
@@ -82,17 +109,4 @@ public class TimeslotService {
      * Deletes all timeslots in the system.
      */
     public void deleteAllTimeslots() {timeslotRepository.deleteAll();}
-
-
-    /**
-     * Deletes all timeslots that start before a specified date.
-     *
-     * @param date LocalDate; timeslots starting before this date will be removed
-     */
-    public void deleteTimeslotsBeforeDate(LocalDate date) {
-        List<Timeslot> slots = findAllTimeslots().stream().filter(timeslot -> timeslot.getStartTime().toLocalDate().isBefore(date)).toList();
-        for (Timeslot slot : slots) {
-            deleteTimeslotById(slot.getId());
-        }
-    }
 }
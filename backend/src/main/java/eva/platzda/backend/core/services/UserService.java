@@ -1,5 +1,6 @@
 package eva.platzda.backend.core.services;
 
+import eva.platzda.backend.core.availability.OccupancyIndex;
 import eva.platzda.backend.core.models.Restaurant;
 import eva.platzda.backend.core.models.User;
 import eva.platzda.backend.core.repositories.UserRepository;
@@ -20,13 +21,15 @@ public class UserService {
     private final UserRepository userRepository;
 
     private final RestaurantService restaurantService;
+    private final OccupancyIndex occupancyIndex;
 
     private final EntityManager em;
 
     @Autowired
-    public UserService(UserRepository userRepository,  RestaurantService restaurantService, EntityManager em) {
+    public UserService(UserRepository userRepository,  RestaurantService restaurantService, OccupancyIndex occupancyIndex, EntityManager em) {
         this.userRepository = userRepository;
         this.restaurantService = restaurantService;
+        this.occupancyIndex = occupancyIndex;
         this.em = em;
     }
 
@@ -71,6 +74,7 @@ public class UserService {
      */
     public void deleteById(Long id) {
         userRepository.deleteById(id);
+        occupancyIndex.invalidateAll();
     }
 
     /**
@@ -81,6 +85,7 @@ public class UserService {
     @Transactional
     public void deleteAll() {
         userRepository.deleteAll();
+        occupancyIndex.invalidateAll();
         em.createNativeQuery("ALTER TABLE appuser ALTER COLUMN id RESTART WITH 1").executeUpdate();
     }
 
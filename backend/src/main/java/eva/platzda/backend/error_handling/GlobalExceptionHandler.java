@@ -33,8 +33,18 @@ public class GlobalExceptionHandler {
     }
 
     @ExceptionHandler
-    public ResponseEntity<String> handleExeption(NotEnoughCapacityException ex) {
-        return ResponseEntity.status(HttpStatus.CONFLICT).body(ex.getMessage());
+    public ResponseEntity<?> handleExeption(NotEnoughCapacityException ex) {
+        if (ex.getAlternatives() == null) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(ex.getMessage());
+        }
+
+        Map<String,Object> body = new LinkedHashMap<>();
+        body.put("message", ex.getMessage());
+        body.put("earlier", ex.getAlternatives().earlier());
+        body.put("later", ex.getAlternatives().later());
+        body.put("elsewhere", ex.getAlternatives().elsewhere());
+
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(body);
     }
 
     @ExceptionHandler
@@ -42,6 +52,11 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.CONFLICT).body(ex.getMessage());
     }
 
+    @ExceptionHandler
+    public ResponseEntity<String> handleException(ServiceBusyException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header("Retry-After", "1").body(ex.getMessage());
+    }
+
     @ExceptionHandler(HttpMessageNotReadableException.class)
     public ResponseEntity<String> handleBadJson(HttpMessageNotReadableException ex) {
         Throwable cause = ex.getCause();
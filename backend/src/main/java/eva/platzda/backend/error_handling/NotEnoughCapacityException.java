@@ -1,14 +1,28 @@
 package eva.platzda.backend.error_handling;
 
 
+import eva.platzda.backend.core.dtos.BookingAlternatives;
+
 public class NotEnoughCapacityException extends RuntimeException {
 
+    private final BookingAlternatives alternatives;
+
     public  NotEnoughCapacityException() {
         super("Not enough capacity at that point in time.");
-
+        this.alternatives = null;
     }
 
     public NotEnoughCapacityException(String message) {
         super(message);
+        this.alternatives = null;
+    }
+
+    public NotEnoughCapacityException(String message, BookingAlternatives alternatives) {
+        super(message);
+        this.alternatives = alternatives;
+    }
+
+    public BookingAlternatives getAlternatives() {
+        return alternatives;
     }
 }
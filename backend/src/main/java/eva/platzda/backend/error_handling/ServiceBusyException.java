@@ -0,0 +1,7 @@
+package eva.platzda.backend.error_handling;
+
+public class ServiceBusyException extends RuntimeException {
+    public ServiceBusyException(String message) {
+        super(message);
+    }
+}
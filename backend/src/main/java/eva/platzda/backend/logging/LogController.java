@@ -1,6 +1,18 @@
 package eva.platzda.backend.logging;
 
+import eva.platzda.backend.core.availability.AvailabilityCache;
+import eva.platzda.backend.core.availability.TimeslotModeBenchmark;
+import eva.platzda.backend.core.booking.BookingLanes;
+import eva.platzda.backend.core.booking.IdempotencyStore;
+import eva.platzda.backend.core.booking.ReservationHolds;
+import eva.platzda.backend.core.booking.UserBookingIndex;
+import eva.platzda.backend.core.booking.Waitlist;
+import eva.platzda.backend.core.booking.LockFreeBookingEngine;
 import eva.platzda.backend.core.dtos.StringRequest;
+import eva.platzda.backend.core.services.ReservationService;
+import eva.platzda.backend.core.services.TimeslotGenerationService;
+import eva.platzda.backend.core.services.TimeslotRetentionService;
+import eva.platzda.backend.error_handling.NotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -17,10 +29,43 @@ import java.util.List;
 public class LogController {
 
     private final LogService logService;
+    private final AvailabilityCache availabilityCache;
+    private final LockFreeBookingEngine lockFreeBookingEngine;
+    private final ReservationService reservationService;
+    private final BookingLanes bookingLanes;
+    private final IdempotencyStore idempotencyStore;
+    private final ReservationHolds reservationHolds;
+    private final UserBookingIndex userBookingIndex;
+    private final Waitlist waitlist;
+    private final TimeslotModeBenchmark timeslotModeBenchmark;
+    private final TimeslotGenerationService timeslotGenerationService;
+    private final TimeslotRetentionService timeslotRetentionService;
 
     @Autowired
-    public LogController(LogService logService) {
+    public LogController(LogService logService,
+                         AvailabilityCache availabilityCache,
+                         LockFreeBookingEngine lockFreeBookingEngine,
+                         ReservationService reservationService,
+                         BookingLanes bookingLanes,
+                         IdempotencyStore idempotencyStore,
+                         ReservationHolds reservationHolds,
+                         UserBookingIndex userBookingIndex,
+                         Waitlist waitlist,
+                         TimeslotModeBenchmark timeslotModeBenchmark,
+                         TimeslotGenerationService timeslotGenerationService,
+                         TimeslotRetentionService timeslotRetentionService) {
         this.logService = logService;
+        this.availabilityCache = availabilityCache;
+        this.lockFreeBookingEngine = lockFreeBookingEngine;
+        this.reservationService = reservationService;
+        this.bookingLanes = bookingLanes;
+        this.idempotencyStore = idempotencyStore;
+        this.reservationHolds = reservationHolds;
+        this.userBookingIndex = userBookingIndex;
+        this.waitlist = waitlist;
+        this.timeslotModeBenchmark = timeslotModeBenchmark;
+        this.timeslotGenerationService = timeslotGenerationService;
+        this.timeslotRetentionService = timeslotRetentionService;
     }
 
     /**
@@ -79,6 +124,180 @@ public class LogController {
         return ResponseEntity.ok(logService.getMaxResponseTime());
     }
 
+    /**
+     *
+     * Returns average number of SQL statements of a request.
+     *
+     * @return Avg statements per request
+     */
+    @GetMapping("avg-queries")
+    public ResponseEntity<Long> getAverageQueryCount() {
+        return ResponseEntity.ok(logService.getAvgQueryCount());
+    }
+
+    /**
+     *
+     * Returns hit, miss and eviction counters of the free-slot cache.
+     *
+     * @return Cache stats as String
+     */
+    @GetMapping("/availability-cache")
+    public ResponseEntity<String> getAvailabilityCacheStats() {
+        return ResponseEntity.ok(availabilityCache.getStats());
+    }
+
+    /**
+     *
+     * Returns claim, conflict and write-behind counters of the booking engine.
+     *
+     * @return Engine stats as String
+     */
+    @GetMapping("/booking-engine")
+    public ResponseEntity<String> getBookingEngineStats() {
+        return ResponseEntity.ok(lockFreeBookingEngine.getStats());
+    }
+
+    /**
+     *
+     * Returns waiting and automatically assigned waitlist entries.
+     *
+     * @return Waitlist stats as String
+     */
+    @GetMapping("/waitlist")
+    public ResponseEntity<String> getWaitlistStats() {
+        return ResponseEntity.ok(waitlist.getStats());
+    }
+
+    /**
+     *
+     * Returns reserved and refused bookings of the per-user daily limit.
+     *
+     * @return User booking index stats as String
+     */
+    @GetMapping("/user-bookings")
+    public ResponseEntity<String> getUserBookingStats() {
+        return ResponseEntity.ok(userBookingIndex.getStats());
+    }
+
+    /**
+     *
+     * Returns pending, confirmed and expired reservation holds.
+     *
+     * @return Hold stats as String
+     */
+    @GetMapping("/holds")
+    public ResponseEntity<String> getHoldStats() {
+        return ResponseEntity.ok(reservationHolds.getStats());
+    }
+
+    /**
+     *
+     * Returns executed and replayed requests of the idempotency store.
+     *
+     * @return Idempotency stats as String
+     */
+    @GetMapping("/idempotency")
+    public ResponseEntity<String> getIdempotencyStats() {
+        return ResponseEntity.ok(idempotencyStore.getStats());
+    }
+
+    /**
+     *
+     * Returns queue depth and rejections of the per-restaurant booking lanes.
+     *
+     * @return Lane stats as String
+     */
+    @GetMapping("/booking-lanes")
+    public ResponseEntity<String> getBookingLaneStats() {
+        return ResponseEntity.ok(bookingLanes.getStats());
+    }
+
+    /**
+     *
+     * Returns attempts and conflicts of optimistic bookings.
+     *
+     * @return Conflict stats as String
+     */
+    @GetMapping("/booking-conflicts")
+    public ResponseEntity<String> getBookingConflictStats() {
+        return ResponseEntity.ok(reservationService.getOptimisticStats());
+    }
+
+    /**
+     *
+     * Returns the rows removed and the time taken by the timeslot retention.
+     *
+     * @return Retention statistics as String
+     */
+    @GetMapping("/timeslot-retention")
+    public ResponseEntity<String> getTimeslotRetentionStats() {
+        return ResponseEntity.ok(timeslotRetentionService.getStats());
+    }
+
+    /**
+     *
+     * Returns the progress of the current or last timeslot publishing run.
+     *
+     * @return Publishing progress as String
+     */
+    @GetMapping("/timeslot-publish")
+    public ResponseEntity<String> getTimeslotPublishProgress() {
+        return ResponseEntity.ok(timeslotGenerationService.getPublishProgress());
+    }
+
+    /**
+     *
+     * Compares reading stored timeslot rows with computing the slots from opening hours and reservations.
+     * Only available with {@code platzda.timeslots.benchmark-enabled=true}.
+     *
+     * @param restaurantId Restaurant whose slots are read
+     * @param days Number of days read per round, starting today
+     * @param rounds Number of rounds per mode
+     * @return Row counts and read latency per timeslot mode as String
+     * @throws NotFoundException if the benchmark is disabled
+     */
+    @GetMapping("/timeslot-benchmark")
+    public ResponseEntity<String> benchmarkTimeslotModes(@RequestParam Long restaurantId,
+                                                         @RequestParam(defaultValue = "7") int days,
+                                                         @RequestParam(defaultValue = "20") int rounds) {
+        if (!timeslotModeBenchmark.isEnabled()) throw new NotFoundException("Timeslot benchmark is disabled");
+        return ResponseEntity.ok(timeslotModeBenchmark.compare(restaurantId, days, rounds));
+    }
+
+    /**
+     *
+     * Returns how long bookings waited for their timeslot row locks.
+     *
+     * @return Lock wait stats as String
+     */
+    @GetMapping("/lock-wait")
+    public ResponseEntity<String> getLockWaitStats() {
+        return ResponseEntity.ok(reservationService.getLockWaitStats());
+    }
+
+    /**
+     *
+     * Returns Hibernate statistics (statements, queries, entity loads) since the last reset.
+     *
+     * @return Statistics as String
+     */
+    @GetMapping("/db-stats")
+    public ResponseEntity<String> getDbStats() {
+        return ResponseEntity.ok(logService.getDbStats());
+    }
+
+    /**
+     *
+     * Resets Hibernate statistics.
+     *
+     * @return
+     */
+    @DeleteMapping("/db-stats")
+    public ResponseEntity<String> resetDbStats() {
+        logService.resetDbStats();
+        return ResponseEntity.ok("Database statistics reset");
+    }
+
     /**
      *
      * Returns all successful transactions (Status 2xx)
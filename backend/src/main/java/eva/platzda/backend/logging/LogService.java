@@ -1,6 +1,9 @@
 package eva.platzda.backend.logging;
 
 
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -22,11 +25,14 @@ public class LogService {
 
     private final LoggedEventRepository loggedEventRepository;
 
+    private final EntityManagerFactory entityManagerFactory;
+
     private static final Logger log = LoggerFactory.getLogger(LogService.class);
 
     @Autowired
-    public LogService(LoggedEventRepository loggedEventRepository) {
+    public LogService(LoggedEventRepository loggedEventRepository, EntityManagerFactory entityManagerFactory) {
         this.loggedEventRepository = loggedEventRepository;
+        this.entityManagerFactory = entityManagerFactory;
     }
 
     /**
@@ -67,6 +73,22 @@ public class LogService {
         return value / adder;
     }
 
+    /**
+     *
+     * Returns avg number of SQL statements per request
+     *
+     * @return
+     */
+    public Long getAvgQueryCount() {
+        List<LoggedEvent> counted = findAll().stream().filter(loggedEvent -> loggedEvent.getQueryCount() != null).toList();
+        if(counted.isEmpty()) return 0L;
+        long value = 0;
+        for (LoggedEvent loggedEvent : counted) {
+            value += loggedEvent.getQueryCount();
+        }
+        return value / counted.size();
+    }
+
     /**
      *
      * Returns median response time in µs
@@ -122,6 +144,40 @@ public class LogService {
 
     }
 
+    /**
+     *
+     * Returns Hibernate statistics since the last reset, collected with platzda.db-stats.enabled=true
+     *
+     * @return Statement, query and entity load counters as String
+     */
+    public String getDbStats() {
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        if (!stats.isStatisticsEnabled()) return "Database statistics disabled, set platzda.db-stats.enabled=true";
+
+        StringBuilder answer = new StringBuilder()
+                .append("Prepared statements: ").append(stats.getPrepareStatementCount()).append("\n")
+                .append("Queries executed: ").append(stats.getQueryExecutionCount()).append("\n")
+                .append("Entities loaded: ").append(stats.getEntityLoadCount()).append("\n")
+                .append("Entities fetched (lazy/eager follow-up selects): ").append(stats.getEntityFetchCount()).append("\n")
+                .append("Collections fetched: ").append(stats.getCollectionFetchCount()).append("\n")
+                .append("Slowest query: ").append(stats.getQueryExecutionMaxTimeQueryString())
+                .append(" (").append(stats.getQueryExecutionMaxTime()).append(" ms)");
+
+        for (String query : stats.getQueries()) {
+            answer.append("\n").append(stats.getQueryStatistics(query).getExecutionCount()).append("x ").append(query);
+        }
+        return answer.toString();
+    }
+
+    /**
+     *
+     * Resets Hibernate statistics, e.g. before measuring a single endpoint
+     *
+     */
+    public void resetDbStats() {
+        entityManagerFactory.unwrap(SessionFactory.class).getStatistics().clear();
+    }
+
     /**
      *
      * Adds a log to db async
@@ -33,6 +33,9 @@ public class LoggedEvent {
     @Column
     private String message;
 
+    @Column
+    private Integer queryCount; //SQL statements executed while handling the request
+
     public LoggedEvent() {}
 
     public LoggedEvent(String endpoint, String eventType, Integer statusCode, long responseTimeUs, String message) {
@@ -120,4 +123,12 @@ public class LoggedEvent {
     public void setMessage(String message) {
         this.message = message;
     }
+
+    public Integer getQueryCount() {
+        return queryCount;
+    }
+
+    public void setQueryCount(Integer queryCount) {
+        this.queryCount = queryCount;
+    }
 }
@@ -34,6 +34,7 @@ public class LoggingInterceptor implements HandlerInterceptor {
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
         long start = System.nanoTime()/1000;
         request.setAttribute(START_TIME, start);
+        QueryCountInspector.reset();
         return true;
     }
 
@@ -42,17 +43,20 @@ public class LoggingInterceptor implements HandlerInterceptor {
         long start = (Long) request.getAttribute(START_TIME);
         long duration = System.nanoTime()/1000 - start;
         int status = response.getStatus();
+        int queries = QueryCountInspector.current();
 
         LoggedEvent loggedEvent;
 
         if (ex != null) {
-            logger.warn("Request {} {} failed after {} ms with exception: {}", request.getMethod(), request.getRequestURI(), (float)duration/1000, ex.getMessage(), ex);
+            logger.warn("Request {} {} failed after {} ms ({} queries) with exception: {}", request.getMethod(), request.getRequestURI(), (float)duration/1000, queries, ex.getMessage(), ex);
             loggedEvent = new LoggedEvent(request.getRequestURI(), request.getMethod(), response.getStatus(), duration, ex.getMessage());
         } else {
-            logger.info("Request {} {} completed with status {} in {} ms", request.getMethod(), request.getRequestURI(), status, (float)duration/1000);
+            logger.info("Request {} {} completed with status {} in {} ms ({} queries)", request.getMethod(), request.getRequestURI(), status, (float)duration/1000, queries);
             loggedEvent = new LoggedEvent(request.getRequestURI(), request.getMethod(), response.getStatus(), duration, "");
         }
 
+        loggedEvent.setQueryCount(queries);
+
         if(!request.getRequestURI().startsWith("/logs")) logService.addLoggedEvent(loggedEvent);
     }
 }
@@ -0,0 +1,51 @@
+package eva.platzda.backend.logging;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ *
+ * Counts the SQL statements Hibernate prepares on the current thread.
+ * Registered in application.properties and read per request by the LoggingInterceptor.
+ * Work handed to other threads reports its statements back with {@link #add(int)}.
+ *
+ */
+public class QueryCountInspector implements StatementInspector {
+
+    private static final ThreadLocal<Integer> COUNT = ThreadLocal.withInitial(() -> 0);
+
+    @Override
+    public String inspect(String sql) {
+        COUNT.set(COUNT.get() + 1);
+        return sql;
+    }
+
+    /**
+     *
+     * Resets the statement counter of the current thread.
+     *
+     */
+    public static void reset() {
+        COUNT.set(0);
+    }
+
+    /**
+     *
+     * Adds statements that were prepared on another thread on behalf of the current one,
+     * e.g. by a booking lane.
+     *
+     * @param statements Number of statements
+     */
+    public static void add(int statements) {
+        COUNT.set(COUNT.get() + statements);
+    }
+
+    /**
+     *
+     * Returns the number of statements prepared on the current thread since the last reset.
+     *
+     * @return Number of statements
+     */
+    public static int current() {
+        return COUNT.get();
+    }
+}
@@ -0,0 +1,52 @@
+package eva.platzda.backend.core.availability;
+
+import eva.platzda.backend.core.dtos.TimeWindow;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AvailabilityCacheTest {
+
+    private static final LocalDate DAY = LocalDate.of(2026, 3, 2);
+    private static final LocalTime TEN = LocalTime.of(10, 0);
+    private static final LocalTime EIGHT_PM = LocalTime.of(20, 0);
+
+    @Test
+    void editedOpeningHoursAreNotServedFromTheCache() {
+        AvailabilityCache cache = new AvailabilityCache(100, 60);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(1L, DAY, TEN, EIGHT_PM, 2, () -> load(loads));
+        cache.get(1L, DAY, TEN, EIGHT_PM, 2, () -> load(loads));
+        assertThat(loads).hasValue(1);
+
+        cache.get(1L, DAY, TEN, LocalTime.of(18, 0), 2, () -> load(loads));
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void invalidatingADayDropsEveryHoursAndPartySize() {
+        AvailabilityCache cache = new AvailabilityCache(100, 60);
+        AtomicInteger loads = new AtomicInteger();
+        cache.get(1L, DAY, TEN, EIGHT_PM, 2, () -> load(loads));
+        cache.get(1L, DAY, TEN, LocalTime.of(18, 0), 4, () -> load(loads));
+        cache.get(1L, DAY.plusDays(1), TEN, EIGHT_PM, 2, () -> load(loads));
+
+        cache.invalidate(1L, DAY);
+        cache.get(1L, DAY, TEN, EIGHT_PM, 2, () -> load(loads));
+        cache.get(1L, DAY, TEN, LocalTime.of(18, 0), 4, () -> load(loads));
+        cache.get(1L, DAY.plusDays(1), TEN, EIGHT_PM, 2, () -> load(loads));
+
+        assertThat(loads).hasValue(5);
+    }
+
+    private static List<TimeWindow> load(AtomicInteger loads) {
+        loads.incrementAndGet();
+        return List.of();
+    }
+}
@@ -0,0 +1,88 @@
+package eva.platzda.backend.core.availability;
+
+import eva.platzda.backend.core.booking.BestFitTableAllocator;
+import eva.platzda.backend.core.booking.GreedyTableAllocator;
+import eva.platzda.backend.core.booking.TableAllocator;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CapacityProfileTest {
+
+    private static final LocalDate DAY = LocalDate.of(2026, 3, 2);
+    private static final int[] SIZES = {2, 2, 4, 6, 8};
+    private static final int LENGTH = 6;
+
+    @Test
+    void maxPartyCanBeSeatedByEveryAllocator() {
+        DayOccupancy occupancy = randomOccupancy(new Random(7));
+        CapacityProfile profile = occupancy.profile(LENGTH);
+
+        TableAllocator[] allocators = {new GreedyTableAllocator(), new BestFitTableAllocator()};
+        for (int slot = 0; slot + LENGTH <= DayOccupancy.SLOTS_PER_DAY; slot++) {
+            int[] free = freeSizes(occupancy, slot);
+            int maxParty = profile.maxParty(slot);
+            assertThat(maxParty).isEqualTo(Arrays.stream(free).sum());
+            for (TableAllocator allocator : allocators) {
+                for (int guests = 1; guests <= maxParty; guests++) {
+                    assertThat(allocator.allocate(free, guests)).as("%s seats %d at slot %d", allocator, guests, slot).isNotEmpty();
+                }
+                assertThat(allocator.allocate(free, maxParty + 1)).isEmpty();
+            }
+        }
+    }
+
+    @Test
+    void maintainedProfileMatchesRebuiltProfile() {
+        Random random = new Random(11);
+        DayOccupancy occupancy = randomOccupancy(random);
+        occupancy.profile(LENGTH);
+
+        for (int i = 0; i < 200; i++) {
+            LocalDateTime start = DAY.atStartOfDay().plusMinutes(15L * random.nextInt(DayOccupancy.SLOTS_PER_DAY - 8));
+            occupancy.setFree((long) random.nextInt(SIZES.length), start, start.plusMinutes(15L * (1 + random.nextInt(8))), random.nextBoolean());
+        }
+        int[] maintained = occupancy.profile(LENGTH).freeSeats();
+
+        occupancy.profile(LENGTH + 1);
+        assertThat(occupancy.profile(LENGTH).freeSeats()).isEqualTo(maintained);
+    }
+
+    @Test
+    void slotsOutOfRangeSeatNobody() {
+        CapacityProfile profile = randomOccupancy(new Random(3)).profile(LENGTH);
+
+        assertThat(profile.maxParty(-1)).isZero();
+        assertThat(profile.maxParty(DayOccupancy.SLOTS_PER_DAY)).isZero();
+    }
+
+    private static DayOccupancy randomOccupancy(Random random) {
+        List<TableState> tables = new ArrayList<>();
+        for (int t = 0; t < SIZES.length; t++) tables.add(new TableState((long) t, 1L, SIZES[t]));
+        DayOccupancy occupancy = new DayOccupancy(DAY, tables);
+
+        for (int t = 0; t < SIZES.length; t++) {
+            for (int slot = 0; slot < DayOccupancy.SLOTS_PER_DAY; slot++) {
+                if (random.nextInt(5) == 0) continue;
+                LocalDateTime start = DAY.atStartOfDay().plusMinutes(15L * slot);
+                occupancy.setFree((long) t, start, start.plusMinutes(15), true);
+            }
+        }
+        return occupancy;
+    }
+
+    private static int[] freeSizes(DayOccupancy occupancy, int slot) {
+        List<Integer> free = new ArrayList<>();
+        for (int t = 0; t < occupancy.getTableCount(); t++) {
+            if (occupancy.isFree(t, slot, LENGTH)) free.add(occupancy.getTableSize(t));
+        }
+        return free.stream().mapToInt(Integer::intValue).sorted().toArray();
+    }
+}
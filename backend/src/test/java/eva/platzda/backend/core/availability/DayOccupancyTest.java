@@ -0,0 +1,106 @@
+package eva.platzda.backend.core.availability;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DayOccupancyTest {
+
+    private static final LocalDate DAY = LocalDate.of(2026, 3, 2);
+
+    @Test
+    void windowStartsFindEveryFreeRunOfTheLength() {
+        DayOccupancy occupancy = occupancy(4);
+        free(occupancy, 1L, 40, 48);
+
+        assertThat(starts(occupancy, 4)).isEqualTo(bits(40, 45));
+        assertThat(starts(occupancy, 8)).isEqualTo(bits(40, 41));
+        assertThat(starts(occupancy, 9)).isEqualTo(new BitSet());
+    }
+
+    @Test
+    void windowsMayCrossWordBoundaries() {
+        DayOccupancy occupancy = occupancy(4);
+        free(occupancy, 1L, 60, 71);
+
+        assertThat(starts(occupancy, 6)).isEqualTo(bits(60, 66));
+    }
+
+    @Test
+    void windowStartsMatchTheSlotBySlotTest() {
+        Random random = new Random(13);
+        DayOccupancy occupancy = occupancy(4);
+        for (int slot = 0; slot < DayOccupancy.SLOTS_PER_DAY; slot++) {
+            if (random.nextInt(6) != 0) free(occupancy, 1L, slot, slot + 1);
+        }
+
+        for (int length = 1; length <= 16; length++) {
+            BitSet expected = new BitSet();
+            for (int slot = 0; slot < DayOccupancy.SLOTS_PER_DAY; slot++) {
+                if (occupancy.isFree(0, slot, length)) expected.set(slot);
+            }
+            assertThat(starts(occupancy, length)).as("length %d", length).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void bookingsCloseTheWindowsThatOverlapThem() {
+        DayOccupancy occupancy = occupancy(4);
+        free(occupancy, 1L, 40, 56);
+        occupancy.setFree(1L, at(46), at(47), false);
+
+        assertThat(starts(occupancy, 4)).isEqualTo(union(bits(40, 43), bits(47, 53)));
+    }
+
+    @Test
+    void otherDaysAndUnknownTablesAreIgnored() {
+        DayOccupancy occupancy = occupancy(4);
+        occupancy.setFree(1L, at(40).minusDays(1), at(48).minusDays(1), true);
+        occupancy.setFree(99L, at(40), at(48), true);
+
+        assertThat(starts(occupancy, 1)).isEqualTo(new BitSet());
+        assertThat(occupancy.indexOf(99L)).isEqualTo(-1);
+    }
+
+    @Test
+    void slotIndexRejectsUnalignedTimes() {
+        assertThat(DayOccupancy.slotIndex(LocalTime.of(12, 15))).isEqualTo(49);
+        assertThat(DayOccupancy.slotIndex(LocalTime.of(12, 10))).isEqualTo(-1);
+        assertThat(DayOccupancy.slotIndex(LocalTime.of(12, 15, 30))).isEqualTo(-1);
+    }
+
+    private static DayOccupancy occupancy(int size) {
+        return new DayOccupancy(DAY, List.of(new TableState(1L, 1L, size)));
+    }
+
+    private static void free(DayOccupancy occupancy, Long tableId, int fromSlot, int toSlot) {
+        occupancy.setFree(tableId, at(fromSlot), at(toSlot), true);
+    }
+
+    private static LocalDateTime at(int slot) {
+        return DAY.atStartOfDay().plusMinutes((long) slot * DayOccupancy.SLOT_MINUTES);
+    }
+
+    private static BitSet starts(DayOccupancy occupancy, int length) {
+        return BitSet.valueOf(occupancy.windowStarts(0, length));
+    }
+
+    private static BitSet bits(int from, int to) {
+        BitSet bits = new BitSet();
+        bits.set(from, to);
+        return bits;
+    }
+
+    private static BitSet union(BitSet a, BitSet b) {
+        BitSet result = (BitSet) a.clone();
+        result.or(b);
+        return result;
+    }
+}
@@ -0,0 +1,95 @@
+package eva.platzda.backend.core.booking;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares table allocators on simulated evenings without touching the database.
+ *
+ * Every round draws one sequence of parties and seats it against a fresh set of tables with
+ * each allocator, so all allocators see exactly the same demand. Run {@link #main} with the
+ * table sizes of a restaurant, e.g. {@code 2,2,4,4,6,8 1000 42}.
+ */
+public final class AllocatorBenchmark {
+
+    private static final int[] PARTY_SIZES = {1, 2, 2, 2, 3, 4, 4, 5, 6, 8};
+
+    private AllocatorBenchmark() {
+    }
+
+    /**
+     * Prints the comparison.
+     *
+     * @param args Comma-separated table sizes, optionally followed by rounds and seed
+     */
+    public static void main(String[] args) {
+        int[] sizes = Arrays.stream(args[0].split(",")).mapToInt(s -> Integer.parseInt(s.trim())).toArray();
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 42;
+        System.out.print(compare(sizes, rounds, seed));
+    }
+
+    /**
+     * Runs the comparison.
+     *
+     * @param tableSizes Sizes of the tables of a restaurant
+     * @param rounds Number of simulated windows
+     * @param seed Random seed, so runs are repeatable
+     * @return Seated guests, occupied seats, utilization and rejected parties per allocator as String
+     */
+    public static String compare(int[] tableSizes, int rounds, long seed) {
+        int[] sorted = tableSizes.clone();
+        Arrays.sort(sorted);
+
+        TableAllocator[] allocators = {new GreedyTableAllocator(), new BestFitTableAllocator()};
+        long[] guestsSeated = new long[allocators.length];
+        long[] seatsUsed = new long[allocators.length];
+        long[] rejected = new long[allocators.length];
+
+        Random random = new Random(seed);
+        for (int round = 0; round < rounds; round++) {
+            List<Integer> parties = new ArrayList<>();
+            int demand = 0;
+            int totalSeats = Arrays.stream(sorted).sum();
+            //ask for about one and a half times the seats to make tables scarce
+            while (demand < totalSeats * 3 / 2) {
+                int party = PARTY_SIZES[random.nextInt(PARTY_SIZES.length)];
+                parties.add(party);
+                demand += party;
+            }
+
+            for (int a = 0; a < allocators.length; a++) {
+                boolean[] taken = new boolean[sorted.length];
+                for (int party : parties) {
+                    List<Integer> free = new ArrayList<>();
+                    for (int i = 0; i < sorted.length; i++) if (!taken[i]) free.add(i);
+                    int[] freeSizes = free.stream().mapToInt(i -> sorted[i]).toArray();
+
+                    List<Integer> chosen = allocators[a].allocate(freeSizes, party);
+                    if (chosen.isEmpty()) {
+                        rejected[a]++;
+                        continue;
+                    }
+                    for (int c : chosen) {
+                        taken[free.get(c)] = true;
+                        seatsUsed[a] += freeSizes[c];
+                    }
+                    guestsSeated[a] += party;
+                }
+            }
+        }
+
+        StringBuilder result = new StringBuilder();
+        for (int a = 0; a < allocators.length; a++) {
+            long utilization = seatsUsed[a] == 0 ? 0 : guestsSeated[a] * 100 / seatsUsed[a];
+            result.append(allocators[a].getClass().getSimpleName()).append(": ")
+                    .append("guests seated ").append(guestsSeated[a])
+                    .append(", seats occupied ").append(seatsUsed[a])
+                    .append(", utilization ").append(utilization).append("%")
+                    .append(", parties rejected ").append(rejected[a]).append("\n");
+        }
+        return result.toString();
+    }
+}
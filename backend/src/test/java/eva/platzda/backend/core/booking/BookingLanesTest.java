@@ -0,0 +1,46 @@
+package eva.platzda.backend.core.booking;
+
+import eva.platzda.backend.error_handling.NotEnoughCapacityException;
+import eva.platzda.backend.logging.QueryCountInspector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BookingLanesTest {
+
+    private final BookingLanes lanes = new BookingLanes(true, 2, 10);
+    private final QueryCountInspector inspector = new QueryCountInspector();
+
+    @AfterEach
+    void shutDown() {
+        lanes.destroy();
+    }
+
+    @Test
+    void statementsOnTheLaneCountForTheCaller() {
+        QueryCountInspector.reset();
+        inspector.inspect("select 1");
+
+        String thread = lanes.run(1L, () -> {
+            inspector.inspect("select 2");
+            inspector.inspect("select 3");
+            return Thread.currentThread().getName();
+        });
+
+        assertThat(thread).startsWith("booking-lane-");
+        assertThat(QueryCountInspector.current()).isEqualTo(3);
+    }
+
+    @Test
+    void failedBookingsAreCountedAndRethrown() {
+        QueryCountInspector.reset();
+
+        assertThatThrownBy(() -> lanes.run(1L, () -> {
+            inspector.inspect("select 1");
+            throw new NotEnoughCapacityException("full");
+        })).isInstanceOf(NotEnoughCapacityException.class);
+        assertThat(QueryCountInspector.current()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,52 @@
+package eva.platzda.backend.core.booking;
+
+import eva.platzda.backend.core.availability.CapacitySummaries;
+import eva.platzda.backend.core.availability.OccupancyIndex;
+import eva.platzda.backend.core.repositories.TableRepository;
+import eva.platzda.backend.core.repositories.TimeslotRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LockFreeBookingEngineTest {
+
+    private static final LocalDateTime START = LocalDateTime.now().plusDays(2).withHour(19).withMinute(0).withSecond(0).withNano(0);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void droppedClaimsAreFreedInTheOccupancyIndex() {
+        OccupancyIndex occupancyIndex = mock(OccupancyIndex.class);
+        BookingWriter bookingWriter = mock(BookingWriter.class);
+        UserBookingIndex userBookingIndex = mock(UserBookingIndex.class);
+        WriteBehindQueue queue = new WriteBehindQueue(dir.resolve("journal.log").toString(), 10_000, "jdbc:h2:file:./data/platzda");
+        LockFreeBookingEngine engine = new LockFreeBookingEngine("lock-free", 500, mock(TableRepository.class), mock(TimeslotRepository.class),
+                mock(CapacitySummaries.class), occupancyIndex, queue, bookingWriter, new GreedyTableAllocator(), userBookingIndex);
+
+        List<BookingClaim> queued = queue.append(List.of(
+                new BookingClaim(0, 1L, 10L, 100L, START, START.plusMinutes(90), 2),
+                new BookingClaim(0, 1L, 11L, 101L, START, START.plusMinutes(90), 4)));
+        BookingClaim dropped = queued.get(0);
+        BookingClaim written = queued.get(1);
+        when(bookingWriter.persist(anyList())).thenReturn(List.of(dropped));
+
+        engine.flush();
+
+        verify(occupancyIndex).markFree(1L, 10L, dropped.start(), dropped.end());
+        verify(occupancyIndex, never()).markFree(1L, 11L, written.start(), written.end());
+        verify(occupancyIndex).markBooked(1L, 11L, written.start(), written.end());
+        verify(userBookingIndex).removeIfCancelled(100L, 1L, START);
+        assertThat(queue.size()).isZero();
+    }
+}
@@ -0,0 +1,86 @@
+package eva.platzda.backend.core.booking;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TableAllocatorTest {
+
+    private final TableAllocator greedy = new GreedyTableAllocator();
+    private final TableAllocator bestFit = new BestFitTableAllocator();
+
+    @Test
+    void greedyTakesTheSmallestTableThatFits() {
+        assertThat(greedy.allocate(new int[]{2, 4, 6}, 3)).containsExactly(1);
+    }
+
+    @Test
+    void greedyAddsTheLargestTableWhileNoneFits() {
+        assertThat(greedy.allocate(new int[]{2, 4, 6}, 9)).containsExactly(2, 1);
+    }
+
+    @Test
+    void bestFitPrefersFewerEmptySeatsOverFewerTables() {
+        assertThat(bestFit.allocate(new int[]{2, 3, 4, 6}, 5)).containsExactly(0, 1);
+    }
+
+    @Test
+    void bestFitPrefersFewerTablesOnEqualEmptySeats() {
+        assertThat(bestFit.allocate(new int[]{2, 3, 4, 6}, 6)).containsExactly(3);
+    }
+
+    @Test
+    void partiesLargerThanAllTablesAreNotSeated() {
+        int[] sizes = {2, 4, 6};
+
+        assertThat(greedy.allocate(sizes, 13)).isEmpty();
+        assertThat(bestFit.allocate(sizes, 13)).isEmpty();
+        assertThat(bestFit.allocate(sizes, 0)).isEmpty();
+        assertThat(bestFit.allocate(new int[0], 2)).isEmpty();
+    }
+
+    @Test
+    void bestFitMatchesExhaustiveSearch() {
+        Random random = new Random(5);
+        for (int round = 0; round < 500; round++) {
+            int[] sizes = random.ints(1 + random.nextInt(7), 1, 9).sorted().toArray();
+            int guests = 1 + random.nextInt(Arrays.stream(sizes).sum());
+
+            List<Integer> chosen = bestFit.allocate(sizes, guests);
+            int seats = chosen.stream().mapToInt(i -> sizes[i]).sum();
+
+            int bestSeats = Integer.MAX_VALUE;
+            int bestCount = Integer.MAX_VALUE;
+            for (int mask = 1; mask < 1 << sizes.length; mask++) {
+                int sum = 0;
+                for (int i = 0; i < sizes.length; i++) if ((mask & 1 << i) != 0) sum += sizes[i];
+                if (sum < guests) continue;
+                int count = Integer.bitCount(mask);
+                if (sum < bestSeats || (sum == bestSeats && count < bestCount)) {
+                    bestSeats = sum;
+                    bestCount = count;
+                }
+            }
+            assertThat(seats).as("sizes %s, guests %d", Arrays.toString(sizes), guests).isEqualTo(bestSeats);
+            assertThat(chosen).hasSize(bestCount).doesNotHaveDuplicates();
+        }
+    }
+
+    @Test
+    void benchmarkSeatsTheSameDemandWithEveryAllocator() {
+        String report = AllocatorBenchmark.compare(new int[]{2, 2, 4, 4, 6, 8}, 200, 42);
+
+        assertThat(report).contains("GreedyTableAllocator: guests seated", "BestFitTableAllocator: guests seated");
+    }
+
+    @Test
+    void seatFillsTablesInOrder() {
+        int[] sizes = {2, 4, 6};
+
+        assertThat(TableAllocator.seat(sizes, List.of(2, 0), 7)).containsExactly(6, 1);
+    }
+}
@@ -0,0 +1,67 @@
+package eva.platzda.backend.core.booking;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TimingWheelTest {
+
+    private static final long START = 1_000_000L;
+
+    @Test
+    void timeoutsExpireOnTheTickAfterTheirDeadline() {
+        TimingWheel<String> wheel = new TimingWheel<>(100, 8, START);
+        wheel.schedule("hold", START + 250);
+
+        assertThat(wheel.advance(START + 299)).isEmpty();
+        assertThat(wheel.advance(START + 300)).containsExactly("hold");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void cancelledTimeoutsNeverExpire() {
+        TimingWheel<String> wheel = new TimingWheel<>(100, 8, START);
+        TimingWheel<String>.Timeout timeout = wheel.schedule("hold", START + 200);
+
+        assertThat(wheel.cancel(timeout)).isTrue();
+        assertThat(wheel.cancel(timeout)).isFalse();
+        assertThat(wheel.advance(START + 1_000)).isEmpty();
+    }
+
+    @Test
+    void deadlinesBeyondOneTurnWaitForTheirRound() {
+        TimingWheel<String> wheel = new TimingWheel<>(100, 4, START);
+        wheel.schedule("late", START + 1_000);
+        wheel.schedule("early", START + 200);
+
+        assertThat(wheel.advance(START + 300)).containsExactly("early");
+        assertThat(wheel.advance(START + 900)).isEmpty();
+        assertThat(wheel.advance(START + 1_000)).containsExactly("late");
+    }
+
+    @Test
+    void largeJumpsExpireEverythingDue() {
+        TimingWheel<Integer> wheel = new TimingWheel<>(10, 4, START);
+        for (int i = 1; i <= 50; i++) wheel.schedule(i, START + i * 25L);
+
+        assertThat(wheel.advance(START + 10_000)).hasSize(50);
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void pastDeadlinesExpireOnTheNextTick() {
+        TimingWheel<String> wheel = new TimingWheel<>(100, 8, START);
+        wheel.advance(START + 500);
+        wheel.schedule("overdue", START);
+
+        assertThat(wheel.advance(START + 599)).isEmpty();
+        assertThat(wheel.advance(START + 600)).containsExactly("overdue");
+    }
+
+    @Test
+    void rejectsInvalidSizes() {
+        assertThatThrownBy(() -> new TimingWheel<String>(0, 8, START)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new TimingWheel<String>(100, 0, START)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,82 @@
+package eva.platzda.backend.core.booking;
+
+import eva.platzda.backend.core.dtos.WaitlistEntry;
+import eva.platzda.backend.error_handling.BadRequestBodyException;
+import eva.platzda.backend.error_handling.NotFoundException;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class WaitlistTest {
+
+    private static final LocalDateTime SEVEN_PM = LocalDateTime.now().plusDays(2).withHour(19).withMinute(0).withSecond(0).withNano(0);
+
+    private final LockFreeBookingEngine lockFreeBookingEngine = mock(LockFreeBookingEngine.class);
+    private final Waitlist waitlist = new Waitlist(2, lockFreeBookingEngine);
+
+    @Test
+    void partiesAreServedByStartThenFirstComeFirstServed() {
+        WaitlistEntry first = waitlist.add(1L, 10L, SEVEN_PM, 2);
+        WaitlistEntry second = waitlist.add(1L, 11L, SEVEN_PM, 4);
+        WaitlistEntry earlier = waitlist.add(1L, 12L, SEVEN_PM.minusMinutes(30), 2);
+        waitlist.add(2L, 13L, SEVEN_PM, 2);
+
+        assertThat(waitlist.waiting(1L, SEVEN_PM.minusHours(1), SEVEN_PM.plusHours(1)))
+                .containsExactly(earlier, first, second);
+    }
+
+    @Test
+    void rangeEndIsExclusive() {
+        WaitlistEntry entry = waitlist.add(1L, 10L, SEVEN_PM, 2);
+
+        assertThat(waitlist.waiting(1L, SEVEN_PM.minusHours(1), SEVEN_PM)).isEmpty();
+        assertThat(waitlist.waiting(1L, SEVEN_PM, SEVEN_PM.plusMinutes(15))).containsExactly(entry);
+    }
+
+    @Test
+    void usersWaitOncePerStartAndQueuesAreBounded() {
+        waitlist.add(1L, 10L, SEVEN_PM, 2);
+
+        assertThatThrownBy(() -> waitlist.add(1L, 10L, SEVEN_PM, 4)).isInstanceOf(BadRequestBodyException.class);
+        waitlist.add(1L, 11L, SEVEN_PM, 2);
+        assertThatThrownBy(() -> waitlist.add(1L, 12L, SEVEN_PM, 2)).isInstanceOf(BadRequestBodyException.class);
+        assertThat(waitlist.add(1L, 12L, SEVEN_PM.plusMinutes(15), 2)).isNotNull();
+    }
+
+    @Test
+    void removedEntriesAreGone() {
+        WaitlistEntry entry = waitlist.add(1L, 10L, SEVEN_PM, 2);
+
+        waitlist.assigned(entry.id());
+
+        assertThat(waitlist.remove(entry.id())).isNull();
+        assertThat(waitlist.waiting(1L, SEVEN_PM, SEVEN_PM.plusMinutes(15))).isEmpty();
+        assertThatThrownBy(() -> waitlist.get(entry.id())).isInstanceOf(NotFoundException.class);
+        assertThat(waitlist.getStats()).contains("Assigned: 1");
+    }
+
+    @Test
+    void pastEntriesAreDropped() {
+        WaitlistEntry past = waitlist.add(1L, 10L, LocalDateTime.now().minusMinutes(1), 2);
+        WaitlistEntry future = waitlist.add(1L, 10L, SEVEN_PM, 2);
+
+        waitlist.dropPast();
+
+        assertThatThrownBy(() -> waitlist.get(past.id())).isInstanceOf(NotFoundException.class);
+        assertThat(waitlist.get(future.id())).isEqualTo(future);
+        assertThat(waitlist.getStats()).contains("Expired: 1");
+    }
+
+    @Test
+    void partiesCannotJoinInLockFreeMode() {
+        when(lockFreeBookingEngine.isEnabled()).thenReturn(true);
+
+        assertThatThrownBy(() -> waitlist.add(1L, 10L, SEVEN_PM, 2)).isInstanceOf(BadRequestBodyException.class);
+        assertThat(waitlist.waiting(1L, SEVEN_PM, SEVEN_PM.plusMinutes(15))).isEmpty();
+    }
+}
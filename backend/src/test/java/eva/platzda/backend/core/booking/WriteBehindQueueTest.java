@@ -0,0 +1,68 @@
+package eva.platzda.backend.core.booking;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WriteBehindQueueTest {
+
+    private static final String FILE_DB = "jdbc:h2:file:./data/platzda";
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void recoverReplaysOnlyUnacknowledgedClaims() {
+        Path journal = dir.resolve("journal.log");
+        WriteBehindQueue queue = new WriteBehindQueue(journal.toString(), 10_000, FILE_DB);
+        List<BookingClaim> queued = queue.append(List.of(claim(1L), claim(2L), claim(3L)));
+        queue.acknowledge(List.of(queued.get(0), queued.get(2)));
+
+        WriteBehindQueue restarted = new WriteBehindQueue(journal.toString(), 10_000, FILE_DB);
+        assertThat(restarted.recover()).isEqualTo(1);
+        assertThat(restarted.pendingAll()).containsExactly(queued.get(1));
+        assertThat(restarted.append(List.of(claim(4L))).getFirst().sequence()).isEqualTo(4);
+    }
+
+    @Test
+    void acknowledgingEverythingTruncatesTheJournal() throws Exception {
+        Path journal = dir.resolve("journal.log");
+        WriteBehindQueue queue = new WriteBehindQueue(journal.toString(), 10_000, FILE_DB);
+        queue.acknowledge(queue.append(List.of(claim(1L), claim(2L))));
+
+        assertThat(Files.size(journal)).isZero();
+    }
+
+    @Test
+    void compactionKeepsPendingClaims() throws Exception {
+        Path journal = dir.resolve("journal.log");
+        WriteBehindQueue queue = new WriteBehindQueue(journal.toString(), 2, FILE_DB);
+        List<BookingClaim> queued = queue.append(List.of(claim(1L), claim(2L), claim(3L)));
+        queue.acknowledge(queued.subList(0, 2));
+
+        assertThat(Files.readAllLines(journal)).containsExactly(queued.get(2).toLine());
+        WriteBehindQueue restarted = new WriteBehindQueue(journal.toString(), 2, FILE_DB);
+        assertThat(restarted.recover()).isEqualTo(1);
+    }
+
+    @Test
+    void journalIsDiscardedWithInMemoryDatabase() {
+        Path journal = dir.resolve("journal.log");
+        new WriteBehindQueue(journal.toString(), 10_000, FILE_DB).append(List.of(claim(1L)));
+
+        WriteBehindQueue restarted = new WriteBehindQueue(journal.toString(), 10_000, "jdbc:h2:mem:testdb");
+        assertThat(restarted.recover()).isZero();
+        assertThat(restarted.size()).isZero();
+    }
+
+    private static BookingClaim claim(Long tableId) {
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 12, 0);
+        return new BookingClaim(0, 1L, tableId, 1L, start, start.plusMinutes(90), 2);
+    }
+}
@@ -0,0 +1,73 @@
+package eva.platzda.backend.core.services;
+
+import eva.platzda.backend.core.models.OpeningHours;
+import eva.platzda.backend.core.models.Reservation;
+import eva.platzda.backend.core.models.Restaurant;
+import eva.platzda.backend.core.models.RestaurantTable;
+import eva.platzda.backend.core.models.Timeslot;
+import eva.platzda.backend.core.models.User;
+import eva.platzda.backend.core.repositories.TimeslotRepository;
+import eva.platzda.backend.core.repositories.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class ReservationServiceTest {
+
+    @Autowired
+    private ReservationService reservationService;
+    @Autowired
+    private RestaurantService restaurantService;
+    @Autowired
+    private HoursService hoursService;
+    @Autowired
+    private TableService tableService;
+    @Autowired
+    private TimeslotRepository timeslotRepository;
+    @Autowired
+    private UserRepository userRepository;
+
+    private Restaurant restaurant;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        restaurant = restaurantService.createRestaurant(new Restaurant("test " + System.nanoTime(), null, 6));
+        for (int weekday = 1; weekday <= 7; weekday++) {
+            hoursService.createOpeningHours(new OpeningHours(restaurant, weekday, LocalTime.of(10, 0), LocalTime.of(20, 0)));
+        }
+        tableService.createTable(new RestaurantTable(restaurant, 2));
+        tableService.createTable(new RestaurantTable(restaurant, 2));
+        user = userRepository.save(new User("Test", "test@test.de"));
+    }
+
+    @Test
+    void cancellingOneTableKeepsTheOtherTablesOfTheParty() {
+        LocalDateTime start = LocalDate.now().plusDays(2).atTime(12, 0);
+
+        List<Reservation> party = reservationService.book(restaurant.getId(), user.getId(), start, 4);
+        assertThat(party).hasSize(2);
+
+        Reservation cancelled = party.get(0);
+        Reservation kept = party.get(1);
+        reservationService.deleteReservation(cancelled);
+
+        assertThat(slotsOf(cancelled)).isNotEmpty().allMatch(s -> s.getUser() == null);
+        assertThat(slotsOf(kept)).isNotEmpty().allMatch(s -> s.getUser() != null && s.getUser().getId().equals(user.getId()));
+    }
+
+    private List<Timeslot> slotsOf(Reservation reservation) {
+        return timeslotRepository.findRestaurantSlots(restaurant.getId(), reservation.getStartTime(), reservation.getEndTime()).stream()
+                .filter(s -> s.getTable().getId().equals(reservation.getRestaurantTable().getId()))
+                .toList();
+    }
+}
@@ -0,0 +1,55 @@
+package eva.platzda.backend.core.services;
+
+import eva.platzda.backend.core.dtos.BatchReservationResult;
+import eva.platzda.backend.core.dtos.ReservationRequest;
+import eva.platzda.backend.core.models.OpeningHours;
+import eva.platzda.backend.core.models.Restaurant;
+import eva.platzda.backend.core.models.RestaurantTable;
+import eva.platzda.backend.core.models.User;
+import eva.platzda.backend.core.repositories.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "platzda.timeslots.mode=virtual")
+class VirtualTimeslotBookingTest {
+
+    @Autowired
+    private ReservationService reservationService;
+    @Autowired
+    private RestaurantService restaurantService;
+    @Autowired
+    private HoursService hoursService;
+    @Autowired
+    private TableService tableService;
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void batchDoesNotSeatTwoPartiesAtTheSameComputedTable() {
+        Restaurant restaurant = restaurantService.createRestaurant(new Restaurant("virtual " + System.nanoTime(), null, 6));
+        for (int weekday = 1; weekday <= 7; weekday++) {
+            hoursService.createOpeningHours(new OpeningHours(restaurant, weekday, LocalTime.of(10, 0), LocalTime.of(20, 0)));
+        }
+        tableService.createTable(new RestaurantTable(restaurant, 2));
+        User first = userRepository.save(new User("First", "first@test.de"));
+        User second = userRepository.save(new User("Second", "second@test.de"));
+        LocalDateTime start = LocalDate.now().plusDays(2).atTime(12, 0);
+
+        Map<Integer, ReservationRequest> entries = new LinkedHashMap<>();
+        entries.put(0, new ReservationRequest(restaurant.getId(), first.getId(), start, 2));
+        entries.put(1, new ReservationRequest(restaurant.getId(), second.getId(), start.plusMinutes(30), 2));
+        List<BatchReservationResult> results = reservationService.bookBatch(restaurant.getId(), entries);
+
+        assertThat(results).extracting(BatchReservationResult::booked).containsExactly(true, false);
+    }
+}
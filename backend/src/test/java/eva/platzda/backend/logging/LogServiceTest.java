@@ -0,0 +1,25 @@
+package eva.platzda.backend.logging;
+
+import eva.platzda.backend.core.repositories.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "platzda.db-stats.enabled=true")
+class LogServiceTest {
+
+    @Autowired
+    private LogService logService;
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void dbStatsCountStatementsWhenEnabled() {
+        logService.resetDbStats();
+        userRepository.count();
+
+        assertThat(logService.getDbStats()).startsWith("Prepared statements: ").doesNotStartWith("Prepared statements: 0");
+    }
+}